@@ -0,0 +1,101 @@
+package com.vladhuk.l1compiler;
+
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+import com.vladhuk.l1compiler.tables.BinaryTableReader;
+import com.vladhuk.l1compiler.tables.TableFormat;
+import com.vladhuk.l1compiler.tables.TableWriter;
+import com.vladhuk.l1compiler.util.Util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class CompilationUnit {
+
+    private List<Lexem> lexems;
+    private List<Lexem> rpn = new ArrayList<>();
+    private SymbolTable constants;
+    private SymbolTable identifiers;
+
+    public CompilationUnit(List<Lexem> lexems, SymbolTable constants, SymbolTable identifiers) {
+        this.lexems = lexems;
+        this.constants = constants;
+        this.identifiers = identifiers;
+    }
+
+    public static CompilationUnit fromTables(List<String> rows) {
+        final List<List<String>> tables = Util.getSeparatedTables(rows);
+
+        return new CompilationUnit(
+                Util.getLexemsFromLexemTable(tables.get(0)),
+                new SymbolTable(Util.getPairsFromTable(tables.get(1))),
+                new SymbolTable(Util.getPairsFromTable(tables.get(2)))
+        );
+    }
+
+    public static CompilationUnit read(Path tables) throws IOException {
+        if (BinaryTableReader.isBinary(tables)) {
+            return BinaryTableReader.read(tables);
+        }
+        return fromTables(Files.readAllLines(tables));
+    }
+
+    public void writeLexemTables(Path destination, TableFormat format) throws IOException {
+        writeTables(lexems, destination, format);
+    }
+
+    public void writeRpnTables(Path destination, TableFormat format) throws IOException {
+        writeTables(rpn, destination, format);
+    }
+
+    private void writeTables(List<Lexem> symbols, Path destination, TableFormat format) throws IOException {
+        try (TableWriter writer = TableWriter.open(destination, format)) {
+            for (Lexem symbol : symbols) {
+                writer.write(symbol);
+            }
+            writer.nextTable();
+            writer.writeAll(constants);
+            writer.nextTable();
+            writer.writeAll(identifiers);
+            writer.finish();
+        }
+    }
+
+    public String lexemTablesToString() {
+        return Util.tablesToString(lexems, constants, identifiers);
+    }
+
+    public String rpnTablesToString() {
+        return Util.tablesToString(rpn, constants, identifiers);
+    }
+
+    public List<Lexem> getLexems() {
+        return lexems;
+    }
+    public void setLexems(List<Lexem> lexems) {
+        this.lexems = lexems;
+    }
+    public List<Lexem> getRpn() {
+        return rpn;
+    }
+    public void setRpn(List<Lexem> rpn) {
+        this.rpn = rpn;
+    }
+    public SymbolTable getConstants() {
+        return constants;
+    }
+    public void setConstants(SymbolTable constants) {
+        this.constants = constants;
+    }
+    public SymbolTable getIdentifiers() {
+        return identifiers;
+    }
+    public void setIdentifiers(SymbolTable identifiers) {
+        this.identifiers = identifiers;
+    }
+
+}
@@ -1,32 +1,97 @@
 package com.vladhuk.l1compiler;
 
 import com.vladhuk.l1compiler.interpretation.Interpreter;
+import com.vladhuk.l1compiler.io.ProgramInput;
+import com.vladhuk.l1compiler.io.ProgramOutput;
+import com.vladhuk.l1compiler.jit.JitCompiler;
 import com.vladhuk.l1compiler.lexical.LexicalAnalyzer;
+import com.vladhuk.l1compiler.optimization.RpnOptimizer;
+import com.vladhuk.l1compiler.semantic.SemanticAnalyzer;
 import com.vladhuk.l1compiler.syntax.SyntaxAnalyzer;
+import com.vladhuk.l1compiler.tables.TableFormat;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 
 public class Main {
 
     public static void main(String[] args) throws IOException {
-        final File source = args.length > 0
-            ? new File(args[0])
+        final List<String> options = Arrays.asList(args);
+        final String sourcePath = options.stream()
+                .filter(arg -> !arg.startsWith("--"))
+                .findFirst()
+                .orElse(null);
+
+        final File source = sourcePath != null
+            ? new File(sourcePath)
             : new File(Main.class.getClassLoader().getResource("resources/test-src/L1_source.txt").getPath());
 
-        final File outDir = new File("out");
-        outDir.mkdir();
+        final LexicalAnalyzer.Mode lexerMode = options.contains("--regex-lexer")
+                ? LexicalAnalyzer.Mode.REGEX
+                : options.contains("--parallel-lexer")
+                ? LexicalAnalyzer.Mode.PARALLEL
+                : LexicalAnalyzer.Mode.DETERMINISTIC;
+
+        final boolean dumpTables = options.contains("--dump-tables");
+        final boolean binaryTables = options.contains("--binary-tables");
+        final boolean optimize = options.contains("--optimize");
+        final boolean jit = options.contains("--jit");
+        final boolean checkTypes = options.contains("--check-types");
+        final String inputPath = optionValue(options, "--input=");
+        final String outputPath = optionValue(options, "--output=");
+
+        final Path outDir = Path.of("out");
+        Files.createDirectories(outDir);
+
+        final CompilationUnit unit = LexicalAnalyzer.analyze(source.toPath(), lexerMode);
+        if (dumpTables) {
+            Files.writeString(outDir.resolve("L1_lexems.txt"), unit.lexemTablesToString());
+        }
+        if (binaryTables) {
+            unit.writeLexemTables(outDir.resolve("L1_lexems.bin"), TableFormat.BINARY);
+        }
 
-        final File lexems = outDir.toPath().resolve("L1_lexems.txt").toFile();
-        final File translation = outDir.toPath().resolve("L1_translation.txt").toFile();
-        final File interpretation = outDir.toPath().resolve("L1_interpretation.txt").toFile();
+        SyntaxAnalyzer.analyze(unit);
+        if (optimize) {
+            RpnOptimizer.optimize(unit);
+        }
+        if (dumpTables) {
+            Files.writeString(outDir.resolve("L1_translation.txt"), unit.rpnTablesToString());
+        }
+        if (binaryTables) {
+            unit.writeRpnTables(outDir.resolve("L1_translation.bin"), TableFormat.BINARY);
+        }
 
-        lexems.createNewFile();
-        translation.createNewFile();
-        interpretation.createNewFile();
+        final boolean typesCorrect = !checkTypes || SemanticAnalyzer.analyze(unit);
+        if (!typesCorrect) {
+            Files.writeString(outDir.resolve("L1_interpretation.txt"), "");
+            return;
+        }
+
+        final ProgramInput input = inputPath != null ? ProgramInput.open(Path.of(inputPath)) : new ProgramInput(System.in);
+        final ProgramOutput output = outputPath != null ? ProgramOutput.create(Path.of(outputPath)) : new ProgramOutput(System.out);
+
+        Files.writeString(outDir.resolve("L1_interpretation.txt"), jit
+                ? JitCompiler.interpret(unit, input, output, System.err)
+                : Interpreter.interpret(unit, input, output, System.err));
+
+        if (inputPath != null) {
+            input.close();
+        }
+        if (outputPath != null) {
+            output.close();
+        }
+    }
 
-        LexicalAnalyzer.parse(source, lexems);
-        SyntaxAnalyzer.analyze(lexems, translation);
-        Interpreter.interpret(translation, interpretation);
+    private static String optionValue(List<String> options, String prefix) {
+        return options.stream()
+                .filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length()))
+                .findFirst()
+                .orElse(null);
     }
 }
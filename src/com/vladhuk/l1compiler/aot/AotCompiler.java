@@ -0,0 +1,326 @@
+package com.vladhuk.l1compiler.aot;
+
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.interpretation.Variables;
+import com.vladhuk.l1compiler.io.ProgramInput;
+import com.vladhuk.l1compiler.io.ProgramOutput;
+import com.vladhuk.l1compiler.jit.CompilationException;
+import com.vladhuk.l1compiler.jit.JavaSourceCompiler;
+import com.vladhuk.l1compiler.jit.ProgramTranslator;
+import com.vladhuk.l1compiler.lexical.LexicalAnalyzer;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.optimization.LoopInvariantHoister;
+import com.vladhuk.l1compiler.optimization.RpnOptimizer;
+import com.vladhuk.l1compiler.syntax.SyntaxAnalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+
+public class AotCompiler {
+
+    public static final String DEFAULT_CLASS_NAME = "L1Program";
+
+    private static final int DUMP_ROWS_PER_METHOD = 512;
+
+    private static final List<Class<?>> RUNTIME_CLASSES = List.of(ProgramInput.class, ProgramOutput.class);
+
+    public static void main(String[] args) throws IOException {
+        Path destination = Path.of("out", DEFAULT_CLASS_NAME + ".jar");
+        String className = DEFAULT_CLASS_NAME;
+        boolean optimize = false;
+        String sourcePath = null;
+
+        for (String arg : args) {
+            if (arg.startsWith("--out=")) {
+                destination = Path.of(arg.substring("--out=".length()));
+            } else if (arg.startsWith("--class=")) {
+                className = arg.substring("--class=".length());
+            } else if (arg.equals("--optimize")) {
+                optimize = true;
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            } else {
+                sourcePath = arg;
+            }
+        }
+
+        final File source = sourcePath != null
+                ? new File(sourcePath)
+                : new File(AotCompiler.class.getClassLoader().getResource("resources/test-src/L1_source.txt").getPath());
+
+        final CompilationUnit unit = LexicalAnalyzer.analyze(source.toPath(), LexicalAnalyzer.Mode.DETERMINISTIC);
+        if (!SyntaxAnalyzer.analyze(unit)) {
+            System.err.println("Can not compile " + source + ": syntax is wrong");
+            return;
+        }
+        if (optimize) {
+            RpnOptimizer.optimize(unit);
+        }
+
+        try {
+            compile(unit, className, destination);
+        } catch (CompilationException e) {
+            System.err.println("Can not compile " + source + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("Compiled " + source + " to " + destination);
+    }
+
+    public static void compile(CompilationUnit unit, String className, Path destination) throws IOException {
+        final Map<String, byte[]> classFiles = compile(unit, className);
+
+        if (destination.getParent() != null) {
+            Files.createDirectories(destination.getParent());
+        }
+
+        if (destination.getFileName().toString().endsWith(".jar")) {
+            writeJar(classFiles, className, destination);
+            return;
+        }
+
+        for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+            final Path path = destination.resolve(classFile.getKey().replace('.', File.separatorChar) + ".class");
+            Files.createDirectories(path.getParent());
+            Files.write(path, classFile.getValue());
+        }
+    }
+
+    public static void compile(File source, File destination) throws IOException {
+        final CompilationUnit unit = LexicalAnalyzer.analyze(source.toPath(), LexicalAnalyzer.Mode.DETERMINISTIC);
+        if (!SyntaxAnalyzer.analyze(unit)) {
+            throw new IllegalArgumentException("Can not compile " + source + ": syntax is wrong");
+        }
+        compile(unit, DEFAULT_CLASS_NAME, destination.toPath());
+    }
+
+    public static Map<String, byte[]> compile(CompilationUnit unit, String className) {
+        final Map<String, byte[]> classFiles = new LinkedHashMap<>(JavaSourceCompiler.compile(className, translate(unit, className)));
+        for (Class<?> runtimeClass : RUNTIME_CLASSES) {
+            classFiles.put(runtimeClass.getName(), readClassFile(runtimeClass));
+        }
+        return classFiles;
+    }
+
+    private static byte[] readClassFile(Class<?> runtimeClass) {
+        try (InputStream in = runtimeClass.getResourceAsStream(runtimeClass.getSimpleName() + ".class")) {
+            if (in == null) {
+                throw new IllegalStateException("Can not find class file of " + runtimeClass.getName());
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void writeJar(Map<String, byte[]> classFiles, String mainClass, Path destination) throws IOException {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
+
+        try (OutputStream file = Files.newOutputStream(destination);
+             JarOutputStream jar = new JarOutputStream(file, manifest)) {
+            for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+                jar.putNextEntry(new JarEntry(classFile.getKey().replace('.', '/') + ".class"));
+                jar.write(classFile.getValue());
+                jar.closeEntry();
+            }
+        }
+    }
+
+    public static String translate(CompilationUnit unit, String className) {
+        final List<Pair> identifiers = unit.getIdentifiers();
+        final ProgramTranslator translator = ProgramTranslator.translate(unit.getRpn(), unit.getConstants(), identifiers);
+        final BitSet used = translator.getUsedIdentifiers();
+
+        final List<Pair> initial = new ArrayList<>(identifiers.size());
+        for (Pair identifier : identifiers) {
+            initial.add(new Pair(identifier));
+        }
+        final Variables variables = new Variables(initial);
+        variables.store(initial);
+
+        final int separator = className.lastIndexOf('.');
+        final StringBuilder source = new StringBuilder();
+        if (separator != -1) {
+            source.append("package ").append(className, 0, separator).append(";\n\n");
+        }
+        source.append("import ").append(ProgramInput.class.getName()).append(";\n");
+        source.append("import ").append(ProgramOutput.class.getName()).append(";\n\n");
+        source.append("import java.io.FileDescriptor;\n");
+        source.append("import java.io.FileInputStream;\n");
+        source.append("import java.io.FileOutputStream;\n");
+        source.append("import java.io.IOException;\n");
+        source.append("import java.nio.file.Files;\n");
+        source.append("import java.nio.file.Path;\n\n");
+
+        final String simpleName = className.substring(separator + 1);
+        source.append("public final class ").append(simpleName).append(" {\n\n");
+        source.append("    private final ProgramInput in;\n");
+        source.append("    private final ProgramOutput out;\n");
+        translator.appendMembers(source);
+
+        source.append("\n    private ").append(simpleName).append("(ProgramInput in, ProgramOutput out) {\n");
+        source.append("        this.in = in;\n");
+        source.append("        this.out = out;\n");
+        for (int index = used.nextSetBit(0); index >= 0; index = used.nextSetBit(index + 1)) {
+            appendInitialValue(source, variables, identifiers.get(index).getType(), index);
+        }
+        source.append("    }\n\n");
+
+        source.append("    public static void main(String[] args) throws IOException {\n");
+        source.append("        final ProgramOutput out = new ProgramOutput(new FileOutputStream(FileDescriptor.out).getChannel());\n");
+        source.append("        final ProgramInput in = new ProgramInput(new FileInputStream(FileDescriptor.in).getChannel());\n");
+        source.append("        in.tie(out);\n");
+        source.append("        final ").append(simpleName).append(" program = new ").append(simpleName).append("(in, out);\n");
+        source.append("        String interpretation = \"\";\n");
+        source.append("        try {\n");
+        source.append("            program.execute();\n");
+        source.append("            interpretation = program.dump();\n");
+        source.append("        } catch (RuntimeException e) {\n");
+        source.append("            out.flush();\n");
+        source.append("            System.err.println(e.getMessage());\n");
+        source.append("        } finally {\n");
+        source.append("            out.flush();\n");
+        source.append("        }\n\n");
+        source.append("        final Path destination = Path.of(args.length > 0 ? args[0] : \"out/L1_interpretation.txt\");\n");
+        source.append("        if (destination.getParent() != null) {\n");
+        source.append("            Files.createDirectories(destination.getParent());\n");
+        source.append("        }\n");
+        source.append("        Files.writeString(destination, interpretation);\n");
+        source.append("    }\n\n");
+
+        appendDump(source, initial, identifiers, used);
+
+        source.append("    private static RuntimeException error(int row, String message) {\n");
+        source.append("        return new RuntimeException(row + \": \" + message);\n");
+        source.append("    }\n\n");
+        source.append("    private static String toText(double number, String text) {\n");
+        source.append("        return text != null ? text : String.valueOf(number);\n");
+        source.append("    }\n\n");
+        source.append("    private static void pad(StringBuilder builder, String value, int width) {\n");
+        source.append("        builder.append(value);\n");
+        source.append("        for (int i = value.length(); i < width; i++) {\n");
+        source.append("            builder.append(' ');\n");
+        source.append("        }\n");
+        source.append("    }\n\n");
+        source.append("    private void print(String value) {\n");
+        source.append("        out.println(value);\n");
+        source.append("    }\n\n");
+        source.append("    private int readNumber() {\n");
+        source.append("        return in.readNumber();\n");
+        source.append("    }\n\n");
+        source.append("    private boolean readBoolean() {\n");
+        source.append("        return in.readBoolean();\n");
+        source.append("    }\n\n");
+        source.append("    private String readString() {\n");
+        source.append("        return in.readLine();\n");
+        source.append("    }\n\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private static void appendInitialValue(StringBuilder source, Variables variables, Pair.Type type, int index) {
+        source.append("        s").append(index).append(" = ").append(variables.state(index)).append(";\n");
+        source.append("        m").append(index).append(" = ").append(variables.isModifiable(index)).append(";\n");
+
+        if (variables.state(index) != Variables.ASSIGNED) {
+            return;
+        }
+
+        final String text = variables.text(index);
+        switch (type) {
+            case NUMBER:
+                source.append("        v").append(index).append(" = Double.longBitsToDouble(0x")
+                        .append(Long.toHexString(variables.value(index))).append("L);\n");
+                source.append("        t").append(index).append(" = ")
+                        .append(text == null ? "null" : ProgramTranslator.quote(text)).append(";\n");
+                break;
+            case BOOLEAN:
+                source.append("        v").append(index).append(" = ").append(variables.value(index) != 0).append(";\n");
+                break;
+            case STRING:
+                source.append("        v").append(index).append(" = ").append(ProgramTranslator.quote(text)).append(";\n");
+                break;
+        }
+    }
+
+    private static void appendDump(StringBuilder source, List<Pair> initial, List<Pair> identifiers, BitSet used) {
+        final int methods = (identifiers.size() + DUMP_ROWS_PER_METHOD - 1) / DUMP_ROWS_PER_METHOD;
+
+        source.append("    private String dump() {\n");
+        source.append("        final StringBuilder builder = new StringBuilder();\n");
+        for (int i = 0; i < methods; i++) {
+            source.append("        dump").append(i).append("(builder);\n");
+        }
+        source.append("        return builder.toString();\n");
+        source.append("    }\n\n");
+
+        boolean first = true;
+        for (int i = 0; i < methods; i++) {
+            source.append("    private void dump").append(i).append("(StringBuilder builder) {\n");
+
+            final int to = Math.min(identifiers.size(), (i + 1) * DUMP_ROWS_PER_METHOD);
+            for (int index = i * DUMP_ROWS_PER_METHOD; index < to; index++) {
+                final Pair identifier = initial.get(index);
+                if (LoopInvariantHoister.isTemporary(identifier)) {
+                    continue;
+                }
+                if (!first) {
+                    source.append("        builder.append('\\n');\n");
+                }
+                first = false;
+
+                final String value = used.get(index) ? dumpValue(identifier, index) : ProgramTranslator.quote(identifier.getValue());
+                final String modifiable = used.get(index) ? "String.valueOf(m" + index + ")" : '"' + String.valueOf(identifier.isModifiable()) + '"';
+
+                source.append("        pad(builder, ").append(ProgramTranslator.quote(identifier.getName())).append(", 15);\n");
+                source.append("        builder.append(' ');\n");
+                source.append("        pad(builder, \"").append(identifier.getType().name()).append("\", 10);\n");
+                source.append("        builder.append(' ');\n");
+                source.append("        pad(builder, ").append(value).append(", 15);\n");
+                source.append("        builder.append(' ');\n");
+                source.append("        pad(builder, ").append(modifiable).append(", 7);\n");
+                source.append("        builder.append(' ');\n");
+                source.append("        pad(builder, \"").append(identifier.getIndex()).append("\", 7);\n");
+            }
+
+            source.append("    }\n\n");
+        }
+    }
+
+    private static String dumpValue(Pair identifier, int index) {
+        final String assigned;
+        switch (identifier.getType()) {
+            case NUMBER:
+                assigned = "toText(v" + index + ", t" + index + ")";
+                break;
+            case BOOLEAN:
+                assigned = "String.valueOf(v" + index + ")";
+                break;
+            case STRING:
+                assigned = "\"'\" + v" + index + " + \"'\"";
+                break;
+            default:
+                assigned = ProgramTranslator.quote(identifier.getValue());
+        }
+
+        return "s" + index + " == " + Variables.UNDEFINED + " ? \"" + Pair.UNDEF + "\" : s" + index + " == "
+                + Variables.DEFINED + " ? \"" + Pair.DEF + "\" : " + assigned;
+    }
+
+}
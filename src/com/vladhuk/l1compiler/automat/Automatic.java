@@ -2,479 +2,324 @@ package com.vladhuk.l1compiler.automat;
 
 import com.vladhuk.l1compiler.lexical.Lexem;
 import com.vladhuk.l1compiler.lexical.Token;
+import com.vladhuk.l1compiler.lexical.TokenStream;
 
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 
 public class Automatic {
 
-    private static final List<State> statesWhiteList = Arrays.asList(
+    private static final int STATE_MASK = 0x3F;
+    private static final int PUSH_SHIFT = 6;
+    private static final int CONSUME = 1 << 12;
+    private static final int UNEXPECTED = 1 << 13;
+    private static final int ROW_BEFORE = 1 << 14;
+    private static final int EXPECTED_SHIFT = 15;
+
+    private static final List<String> EXPECTED = Arrays.asList(
+            null, "new line", "type", "=", "goto", "if", "then", "identifier", "to", "do", "declaration or assigning"
+    );
+
+    private static final Set<State> END_OF_INPUT_STATES = EnumSet.of(
             State.ERROR, State.EXIT, State.EOL, State.ARITHM_OR_BOOL_SIGN, State.ARITHM_SIGN, State.BOOL_SIGN,
             State.END
     );
 
-    private LinkedList<String> localStorageStack = new LinkedList<>();
-    private LinkedList<State> stateStack = new LinkedList<>();
-    private LinkedList<Lexem> lexems;
+    private static final State[] STATES = State.values();
+    private static final int[][] TRANSITIONS = buildTransitions();
 
-    private Automatic() {}
+    private final TokenCursor cursor;
+    private int input;
 
-    public static Automatic build(List<Lexem> lexems) {
-        final Automatic automatic = new Automatic();
-        automatic.lexems = new LinkedList<>(lexems);
-        return automatic;
-    }
+    private int[] stack = new int[16];
+    private int size;
 
-    private void showExpectedError(String name, int rowNumber) {
-        System.err.println("Expected '" + name + "' on line " + rowNumber + '.');
+    private Automatic(TokenCursor cursor) {
+        this.cursor = cursor;
+        this.input = classify();
     }
 
-    private void showUnexpectedError(Lexem lexem) {
-        final String lexemName = lexem.getName().equals("\n") ? "new line" : lexem.getName();
-        System.err.println("Unexpected '" + lexemName + "' on line " + lexem.getRowNumber() + '.');
+    public static Automatic build(List<Lexem> lexems) {
+        return new Automatic(new TokenCursor(lexems));
     }
 
-    public boolean run() {
-        State currentState = State.EXIT;
-
-        while (true) {
-            currentState = manageState(currentState);
-
-            if (lexems.size() == 0 && stateStack.size() == 0 && currentState == State.EXIT) {
-                return true;
-            } else if (currentState == State.ERROR) {
-                return false;
-            }
-        }
+    public static Automatic build(TokenStream stream) {
+        return new Automatic(new TokenCursor(stream));
     }
 
-    private State getState(Lexem lexem) {
-        switch (lexem.getToken()) {
-            case DECLARATION: return processDeclaration();
-            case IDENTIFIER: return processIdentifier();
-            case JUMP: return State.GOTO;
-            case CONDITION: return State.IF;
-            case LOOP: return State.LOOP;
-
-            default: return State.ERROR;
-        }
+    public static Automatic build(TokenCursor cursor) {
+        return new Automatic(cursor);
     }
 
-    private State manageState(State state) {
-        if (lexems.size() == 0 && !statesWhiteList.contains(state)) {
-            state = State.ERROR;
-        }
-
-        switch (state) {
-            case EXIT: return performExit();
-            case EOL: return performEol();
-            case DECLARATION: return performDeclaration();
-            case DECLARATION_OPTIONAL_PUNCT: return performDeclarationOptionalPunct();
-            case TYPE: return performType();
-            case ASSIGN: return performAssign();
-            case OPTIONAL_ASSIGN: return performOptionalAssign();
-            case EXPRESSION: return performExpression();
-            case EXPRESSION_OR_STRING: return performExpressionOrString();
-            case STRING: return performString();
-            case ARITHM_OR_BOOL_SIGN: return performArithmOrBoolSign();
-            case BOOL_SIGN: return performBoolSign();
-            case ARITHM_SIGN: return performArithmSign();
-            case BOOL_EXPRESSION: return performBoolExpression();
-            case ARITHM_EXPRESSION: return performArithmExpression();
-            case CLOSE_BRACKET: return performCloseBracket();
-            case CLOSE_BRACKET_ARITHM: return performCloseBracketArithm();
-            case CLOSE_BRACKET_BOOL: return performCloseBracketBool();
-            case LABEL_MARK_OR_ASSIGNING: return performLabelMarkOrAssigning();
-            case IF: return performIf();
-            case THEN: return performThen();
-            case IDENTIFIER: return performIdentifier();
-            case GOTO: return performGoto();
-            case LOOP: return performLoop();
-            case TO: return performTo();
-            case DO: return performDo();
-            case DECLARATION_OR_ASSIGNING: return performDeclarationOrAssigning();
-            case END: return performEnd();
-
-            case ERROR:
-            default:
-                return State.ERROR;
-        }
+    private void showExpectedError(String name, int rowNumber) {
+        System.err.println("Expected '" + name + "' on line " + rowNumber + '.');
     }
 
-    private State performExit() {
-        final State state;
-
-        if (stateStack.size() != 0 && stateStack.peek() != State.END) {
-            state = stateStack.poll();
-        } else if (lexems.size() == 0 && stateStack.size() > 0) {
-            state = State.ERROR;
-        } else if (lexems.size() == 0) {
-            state = State.EXIT;
-        } else {
-            state = getState(lexems.peek());
-        }
-
-        if (state == State.EXIT || state == State.ERROR) {
-            return state;
-        } else {
-            return manageState(state);
-        }
+    private void showUnexpectedError(String name, int rowNumber) {
+        final String lexemName = name.equals(TokenCursor.EOL) ? "new line" : name;
+        System.err.println("Unexpected '" + lexemName + "' on line " + rowNumber + '.');
     }
 
-    private State performEol() {
-        final Lexem lexem = lexems.poll();
-
-        if (lexem == null || lexem.getName().equals("\n")) {
-            return State.EXIT;
+    private int classify() {
+        if (!cursor.hasCurrent()) {
+            return Input.END_OF_INPUT.ordinal();
         }
-
-        showExpectedError("new line", lexem.getRowNumber());
-        return State.ERROR;
-    }
-
-    private State processDeclaration() {
-        stateStack.push(State.EOL);
-        return State.DECLARATION;
+        return cursor.isEol() ? Input.EOL.ordinal() : Input.of(cursor.getToken(), cursor.getName()).ordinal();
     }
 
-    private State performDeclaration() {
-        final Lexem lexem = lexems.poll();
-
-        if (lexem.getName().equals("val")) {
-            localStorageStack.push("val");
-            stateStack.push(State.DECLARATION_OPTIONAL_PUNCT);
-            return State.IDENTIFIER;
-        }
-        if (lexem.getName().equals("var")) {
-            localStorageStack.push("var");
-            stateStack.push(State.DECLARATION_OPTIONAL_PUNCT);
-            return State.IDENTIFIER;
-        }
-
-        return State.ERROR;
-    }
+    public boolean run() {
+        final int exit = State.EXIT.ordinal();
+        final int error = State.ERROR.ordinal();
+        int state = exit;
 
-    private State performDeclarationOptionalPunct() {
-        final Lexem lexem = lexems.poll();
+        while (true) {
+            state = step(state);
 
-        if (lexem.getToken() == Token.PUNCT) {
-            return State.TYPE;
-        } else if (lexem.getToken() == Token.ASSIGN) {
-            stateStack.push(State.EXIT);
-            return State.EXPRESSION_OR_STRING;
+            if (input == Input.END_OF_INPUT.ordinal() && size == 0 && state == exit) {
+                return true;
+            } else if (state == error) {
+                return false;
+            }
         }
-
-        showUnexpectedError(lexem);
-        return State.ERROR;
     }
 
-    private State performType() {
-        final Lexem lexem = lexems.poll();
-
-        if (lexem.getToken() == Token.TYPE) {
-            if (localStorageStack.poll().equals("val")) {
-                return State.ASSIGN;
-            } else {
-                return State.OPTIONAL_ASSIGN;
+    private int step(int state) {
+        if (state == State.EXIT.ordinal() && size != 0) {
+            if (stack[size - 1] != State.END.ordinal()) {
+                return stack[--size];
+            }
+            if (input == Input.END_OF_INPUT.ordinal()) {
+                return State.ERROR.ordinal();
             }
         }
 
-        showExpectedError("type", lexem.getRowNumber());
-        return State.ERROR;
-    }
-
-    private State performAssign() {
-        final Lexem lexem = lexems.poll();
-
-        if (lexem.getToken() == Token.ASSIGN) {
-            stateStack.push(State.EXIT);
-            return State.EXPRESSION_OR_STRING;
+        if (state == State.END.ordinal()) {
+            if (size != 0 && stack[size - 1] == State.END.ordinal()) {
+                size--;
+                return State.EOL.ordinal();
+            }
+            return State.ERROR.ordinal();
         }
 
-        showExpectedError("=", lexem.getRowNumber());
-        return State.ERROR;
-    }
+        final int transition = TRANSITIONS[state][input];
 
-    private State performOptionalAssign() {
-        if (lexems.peek().getToken() == Token.ASSIGN) {
-            return State.ASSIGN;
-        } else {
-            return State.EXIT;
+        if ((transition & UNEXPECTED) != 0) {
+            showUnexpectedError(cursor.getName(), cursor.getRowNumber());
+        } else if (transition >>> EXPECTED_SHIFT != 0) {
+            final int rowNumber = (transition & ROW_BEFORE) != 0 ? cursor.getRowNumber() - 1 : cursor.getRowNumber();
+            showExpectedError(EXPECTED.get(transition >>> EXPECTED_SHIFT), rowNumber);
         }
-    }
 
-    private State performExpressionOrString() {
-        if (lexems.peek().getName().matches("'[^']*'")) {
-            return State.STRING;
+        if ((transition & CONSUME) != 0 && input != Input.END_OF_INPUT.ordinal()) {
+            cursor.advance();
+            input = classify();
         }
 
-        return State.EXPRESSION;
-    }
-
-    private State performExpression() {
-        final Lexem lexem = lexems.poll();
-
-        if (lexem.getToken() == Token.ADD_OP) {
-            stateStack.push(State.ARITHM_OR_BOOL_SIGN);
-            return State.EXPRESSION;
-        }
-        if (lexem.getToken() == Token.IDENTIFIER) {
-            return State.ARITHM_OR_BOOL_SIGN;
-        }
-        if (lexem.getToken() != Token.CONSTANT && lexem.getToken() != Token.BRACKET_OP) {
-            return State.ERROR;
-        }
-        if (lexem.getName().equals("(")) {
-            stateStack.push(State.CLOSE_BRACKET);
-            return State.EXPRESSION;
+        final int push = (transition >>> PUSH_SHIFT & STATE_MASK) - 1;
+        if (push != -1) {
+            if (size == stack.length) {
+                stack = Arrays.copyOf(stack, size * 2);
+            }
+            stack[size++] = push;
         }
 
-        return State.ARITHM_OR_BOOL_SIGN;
+        return transition & STATE_MASK;
     }
 
-    private State performString() {
-        lexems.poll();
-        return State.EXIT;
-    }
+    private static int[][] buildTransitions() {
+        final int[][] table = new int[STATES.length][Input.values().length];
 
-    private State performArithmOrBoolSign() {
-        final Lexem lexem = lexems.poll();
+        otherwise(table, State.ERROR, to(State.ERROR));
 
-        if (lexem == null) {
-            return State.EXIT;
-        }
-        if (lexem.getToken() == Token.ADD_OP || lexem.getToken() == Token.MULT_OP || lexem.getToken() == Token.POW_OP) {
-            return State.ARITHM_EXPRESSION;
-        }
-        if (lexem.getToken() == Token.REL_OP) {
-            return State.BOOL_EXPRESSION;
-        }
+        otherwise(table, State.EXIT, to(State.ERROR));
+        on(table, State.EXIT, call(State.DECLARATION, State.EOL), Input.VAL, Input.VAR);
+        on(table, State.EXIT, call(State.IDENTIFIER, State.LABEL_MARK_OR_ASSIGNING), Input.IDENTIFIER);
+        on(table, State.EXIT, to(State.GOTO), Input.GOTO);
+        on(table, State.EXIT, to(State.IF), Input.IF, Input.THEN);
+        on(table, State.EXIT, to(State.LOOP), Input.WHILE, Input.FOR, Input.TO, Input.DO, Input.END);
+        on(table, State.EXIT, to(State.EXIT), Input.END_OF_INPUT);
 
-        lexems.push(lexem);
-        return State.EXIT;
-    }
+        otherwise(table, State.EOL, expected("new line"));
+        on(table, State.EOL, consume(to(State.EXIT)), Input.EOL);
+        on(table, State.EOL, to(State.EXIT), Input.END_OF_INPUT);
 
-    private State performArithmSign() {
-        final Lexem lexem = lexems.peek();
+        otherwise(table, State.DECLARATION, to(State.ERROR));
+        on(table, State.DECLARATION, consume(call(State.IDENTIFIER, State.VAL_DECLARATION_OPTIONAL_PUNCT)), Input.VAL);
+        on(table, State.DECLARATION, consume(call(State.IDENTIFIER, State.DECLARATION_OPTIONAL_PUNCT)), Input.VAR);
 
-        if (lexem == null) {
-            return State.EXIT;
-        }
-        if (lexem.getToken() == Token.ADD_OP || lexem.getToken() == Token.MULT_OP || lexem.getToken() == Token.POW_OP) {
-            lexems.poll();
-            return State.ARITHM_EXPRESSION;
-        }
+        otherwise(table, State.DECLARATION_OPTIONAL_PUNCT, unexpected());
+        on(table, State.DECLARATION_OPTIONAL_PUNCT, consume(to(State.TYPE)), Input.PUNCT);
+        on(table, State.DECLARATION_OPTIONAL_PUNCT, consume(call(State.EXPRESSION_OR_STRING, State.EXIT)), Input.ASSIGN);
 
-        return State.EXIT;
-    }
+        otherwise(table, State.VAL_DECLARATION_OPTIONAL_PUNCT, unexpected());
+        on(table, State.VAL_DECLARATION_OPTIONAL_PUNCT, consume(to(State.VAL_TYPE)), Input.PUNCT);
+        on(table, State.VAL_DECLARATION_OPTIONAL_PUNCT, consume(call(State.EXPRESSION_OR_STRING, State.EXIT)), Input.ASSIGN);
 
-    private State performBoolSign() {
-        if (lexems.size() == 0) {
-            return State.EXIT;
-        }
+        otherwise(table, State.TYPE, expected("type"));
+        on(table, State.TYPE, consume(to(State.OPTIONAL_ASSIGN)), Input.TYPE);
 
-        final Lexem lexem = lexems.poll();
+        otherwise(table, State.VAL_TYPE, expected("type"));
+        on(table, State.VAL_TYPE, consume(to(State.ASSIGN)), Input.TYPE);
 
-        if (lexem.getToken() == Token.REL_OP) {
-            return State.BOOL_EXPRESSION;
-        }
+        otherwise(table, State.ASSIGN, expected("="));
+        on(table, State.ASSIGN, consume(call(State.EXPRESSION_OR_STRING, State.EXIT)), Input.ASSIGN);
 
-        return State.EXIT;
-    }
+        otherwise(table, State.OPTIONAL_ASSIGN, to(State.EXIT));
+        on(table, State.OPTIONAL_ASSIGN, to(State.ASSIGN), Input.ASSIGN);
 
-    private State performArithmExpression() {
-        final Lexem lexem = lexems.poll();
+        otherwise(table, State.EXPRESSION_OR_STRING, to(State.EXPRESSION));
+        on(table, State.EXPRESSION_OR_STRING, to(State.STRING), Input.STRING);
 
-        if (lexem.getToken() == Token.ADD_OP) {
-            stateStack.push(State.ARITHM_SIGN);
-            return State.ARITHM_EXPRESSION;
-        }
-        if (lexem.getName().equals("(")) {
-            stateStack.push(State.CLOSE_BRACKET_ARITHM);
-            return State.ARITHM_EXPRESSION;
-        }
-        if (lexem.getToken() == Token.IDENTIFIER || lexem.getName().matches("\\d+(((\\.\\d+)?e[+-]\\d+)|(\\.\\d+))?")) {
-            return State.ARITHM_SIGN;
-        }
+        otherwise(table, State.EXPRESSION, consume(to(State.ERROR)));
+        on(table, State.EXPRESSION, consume(call(State.EXPRESSION, State.ARITHM_OR_BOOL_SIGN)), Input.ADD_OP);
+        on(table, State.EXPRESSION, consume(call(State.EXPRESSION, State.CLOSE_BRACKET)), Input.OPEN_BRACKET);
+        on(table, State.EXPRESSION, consume(to(State.ARITHM_OR_BOOL_SIGN)),
+                Input.IDENTIFIER, Input.NUMBER, Input.STRING, Input.BOOLEAN, Input.CLOSE_BRACKET);
 
-        showUnexpectedError(lexem);
-        return State.ERROR;
-    }
+        otherwise(table, State.STRING, consume(to(State.EXIT)));
 
-    private State performBoolExpression() {
-        final Lexem lexem = lexems.poll();
+        otherwise(table, State.ARITHM_OR_BOOL_SIGN, to(State.EXIT));
+        on(table, State.ARITHM_OR_BOOL_SIGN, consume(to(State.ARITHM_EXPRESSION)), Input.ADD_OP, Input.MULT_OP);
+        on(table, State.ARITHM_OR_BOOL_SIGN, consume(to(State.BOOL_EXPRESSION)), Input.REL_OP);
 
-        if (lexem.getToken() == Token.ADD_OP) {
-            stateStack.push(State.ARITHM_SIGN);
-            return State.ARITHM_EXPRESSION;
-        }
-        if (lexem.getName().equals("(")) {
-            stateStack.push(State.CLOSE_BRACKET_BOOL);
-            return State.ARITHM_EXPRESSION;
-        }
-        if (lexem.getToken() == Token.IDENTIFIER || lexem.getToken() == Token.CONSTANT) {
-            return State.BOOL_SIGN;
-        }
+        otherwise(table, State.ARITHM_SIGN, to(State.EXIT));
+        on(table, State.ARITHM_SIGN, consume(to(State.ARITHM_EXPRESSION)), Input.ADD_OP, Input.MULT_OP);
 
-        showUnexpectedError(lexem);
-        return State.ERROR;
-    }
+        otherwise(table, State.BOOL_SIGN, to(State.EXIT));
+        on(table, State.BOOL_SIGN, consume(to(State.BOOL_EXPRESSION)), Input.REL_OP);
 
-    private State performCloseBracket() {
-        return lexems.poll().getName().equals(")") ? State.ARITHM_OR_BOOL_SIGN : State.ERROR;
-    }
+        otherwise(table, State.ARITHM_EXPRESSION, unexpected());
+        on(table, State.ARITHM_EXPRESSION, consume(call(State.ARITHM_EXPRESSION, State.ARITHM_SIGN)), Input.ADD_OP);
+        on(table, State.ARITHM_EXPRESSION, consume(call(State.ARITHM_EXPRESSION, State.CLOSE_BRACKET_ARITHM)), Input.OPEN_BRACKET);
+        on(table, State.ARITHM_EXPRESSION, consume(to(State.ARITHM_SIGN)), Input.IDENTIFIER, Input.NUMBER);
 
-    private State performCloseBracketArithm() {
-        return lexems.poll().getName().equals(")") ? State.ARITHM_SIGN : State.ERROR;
-    }
+        otherwise(table, State.BOOL_EXPRESSION, unexpected());
+        on(table, State.BOOL_EXPRESSION, consume(call(State.ARITHM_EXPRESSION, State.ARITHM_SIGN)), Input.ADD_OP);
+        on(table, State.BOOL_EXPRESSION, consume(call(State.ARITHM_EXPRESSION, State.CLOSE_BRACKET_BOOL)), Input.OPEN_BRACKET);
+        on(table, State.BOOL_EXPRESSION, consume(to(State.BOOL_SIGN)),
+                Input.IDENTIFIER, Input.NUMBER, Input.STRING, Input.BOOLEAN);
 
-    private State performCloseBracketBool() {
-        return lexems.poll().getName().equals(")") ? State.BOOL_SIGN : State.ERROR;
-    }
+        otherwise(table, State.CLOSE_BRACKET, consume(to(State.ERROR)));
+        on(table, State.CLOSE_BRACKET, consume(to(State.ARITHM_OR_BOOL_SIGN)), Input.CLOSE_BRACKET);
 
-    private State performLabelMarkOrAssigning() {
-        final Lexem lexem = lexems.poll();
+        otherwise(table, State.CLOSE_BRACKET_ARITHM, consume(to(State.ERROR)));
+        on(table, State.CLOSE_BRACKET_ARITHM, consume(to(State.ARITHM_SIGN)), Input.CLOSE_BRACKET);
 
-        if (lexem.getToken() == Token.PUNCT) {
-            return State.EOL;
-        } else if (lexem.getToken() == Token.ASSIGN) {
-            stateStack.push(State.EOL);
-            return State.EXPRESSION_OR_STRING;
-        }
+        otherwise(table, State.CLOSE_BRACKET_BOOL, consume(to(State.ERROR)));
+        on(table, State.CLOSE_BRACKET_BOOL, consume(to(State.BOOL_SIGN)), Input.CLOSE_BRACKET);
 
-        showUnexpectedError(lexem);
-        return State.ERROR;
-    }
+        otherwise(table, State.LABEL_MARK_OR_ASSIGNING, unexpected());
+        on(table, State.LABEL_MARK_OR_ASSIGNING, consume(to(State.EOL)), Input.PUNCT);
+        on(table, State.LABEL_MARK_OR_ASSIGNING, consume(call(State.EXPRESSION_OR_STRING, State.EOL)), Input.ASSIGN);
 
-    private State performGoto() {
-        final Lexem lexem = lexems.poll();
+        otherwise(table, State.IF, expected("if"));
+        on(table, State.IF, consume(call(State.BOOL_EXPRESSION, State.THEN)), Input.IF);
 
-        if (lexem.getToken() == Token.JUMP) {
-            stateStack.push(State.EOL);
-            return State.IDENTIFIER;
-        }
+        otherwise(table, State.THEN, expected("then"));
+        on(table, State.THEN, consume(to(State.THEN)), Input.EOL);
+        on(table, State.THEN, consume(call(State.EOL, State.GOTO)), Input.THEN);
 
-        showExpectedError("goto", lexem.getRowNumber() - 1);
-        return State.ERROR;
-    }
+        otherwise(table, State.IDENTIFIER, expected("identifier"));
+        on(table, State.IDENTIFIER, consume(to(State.EXIT)), Input.IDENTIFIER);
 
-    private State performIf() {
-        final Lexem lexem = lexems.poll();
+        otherwise(table, State.GOTO, expected("goto") | ROW_BEFORE);
+        on(table, State.GOTO, consume(call(State.IDENTIFIER, State.EOL)), Input.GOTO);
 
-        if (lexem.getName().equals("if")) {
-            stateStack.push(State.THEN);
-            return State.BOOL_EXPRESSION;
-        }
+        otherwise(table, State.LOOP, unexpected());
+        on(table, State.LOOP, consume(call(State.BOOL_EXPRESSION, State.DO)), Input.WHILE);
+        on(table, State.LOOP, consume(to(State.DECLARATION_OR_ASSIGNING)), Input.FOR);
+        on(table, State.LOOP, consume(to(State.END)), Input.END);
 
-        showExpectedError("if", lexem.getRowNumber());
-        return State.ERROR;
-    }
+        otherwise(table, State.DECLARATION_OR_ASSIGNING, expected("declaration or assigning"));
+        on(table, State.DECLARATION_OR_ASSIGNING, consume(call(State.ASSIGN, State.TO)), Input.IDENTIFIER);
+        on(table, State.DECLARATION_OR_ASSIGNING, call(State.DECLARATION, State.TO), Input.VAL, Input.VAR);
 
-    private State performThen() {
-        while (lexems.peek().getName().equals("\n")) {
-            lexems.poll();
-        }
+        otherwise(table, State.TO, expected("to"));
+        on(table, State.TO, consume(call(State.ARITHM_EXPRESSION, State.DO)), Input.TO);
 
-        final Lexem lexem = lexems.poll();
+        otherwise(table, State.DO, expected("do"));
+        on(table, State.DO, consume(to(State.DO)), Input.EOL);
+        on(table, State.DO, consume(call(State.EOL, State.END)), Input.DO);
 
-        if (lexem.getName().equals("then")) {
-            stateStack.push(State.GOTO);
-            return State.EOL;
+        for (State state : STATES) {
+            if (!END_OF_INPUT_STATES.contains(state)) {
+                table[state.ordinal()][Input.END_OF_INPUT.ordinal()] = to(State.ERROR);
+            }
         }
 
-        showExpectedError("then", lexem.getRowNumber());
-        return State.ERROR;
+        return table;
     }
 
-    private State processIdentifier() {
-        stateStack.push(State.LABEL_MARK_OR_ASSIGNING);
-        return State.IDENTIFIER;
+    private static void otherwise(int[][] table, State state, int transition) {
+        Arrays.fill(table[state.ordinal()], transition);
     }
 
-    private State performIdentifier() {
-        final Lexem lexem = lexems.poll();
-
-        if (lexem.getToken() == Token.IDENTIFIER) {
-            return State.EXIT;
+    private static void on(int[][] table, State state, int transition, Input... inputs) {
+        for (Input input : inputs) {
+            table[state.ordinal()][input.ordinal()] = transition;
         }
-
-        showExpectedError("identifier", lexem.getRowNumber());
-        return State.ERROR;
     }
 
-    private State performLoop() {
-        final Lexem lexem = lexems.poll();
-
-        if (lexem.getName().equals("while")) {
-            stateStack.push(State.DO);
-            return State.BOOL_EXPRESSION;
-        }
-        if (lexem.getName().equals("for")) {
-            return State.DECLARATION_OR_ASSIGNING;
-        }
-        if (lexem.getName().equals("end")) {
-            return State.END;
-        }
-
-        showUnexpectedError(lexem);
-        return State.ERROR;
+    private static int to(State next) {
+        return next.ordinal();
     }
 
-    private State performDeclarationOrAssigning() {
-        final Lexem lexem = lexems.peek();
-
-        if (lexem.getToken() == Token.IDENTIFIER) {
-            stateStack.push(State.TO);
-            lexems.poll();
-            return State.ASSIGN;
-        }
-        if (lexem.getToken() == Token.DECLARATION) {
-            stateStack.push(State.TO);
-            return State.DECLARATION;
-        }
-
-        showExpectedError("declaration or assigning", lexem.getRowNumber());
-        return State.ERROR;
+    private static int call(State next, State returnState) {
+        return next.ordinal() | (returnState.ordinal() + 1) << PUSH_SHIFT;
     }
 
-    private State performTo() {
-        final Lexem lexem = lexems.poll();
-
-        if (lexem.getName().equals("to")) {
-            stateStack.push(State.DO);
-            return State.ARITHM_EXPRESSION;
-        }
-
-        showExpectedError("to", lexem.getRowNumber());
-        return State.ERROR;
+    private static int consume(int transition) {
+        return transition | CONSUME;
     }
 
-    private State performDo() {
-        while (lexems.peek().getName().equals("\n")) {
-            lexems.poll();
-        }
-
-        final Lexem lexem = lexems.poll();
-
-        if (lexem.getName().equals("do")) {
-            stateStack.push(State.END);
-            return State.EOL;
-        }
+    private static int expected(String name) {
+        return State.ERROR.ordinal() | EXPECTED.indexOf(name) << EXPECTED_SHIFT;
+    }
 
-        showExpectedError("do", lexem.getRowNumber());
-        return State.ERROR;
+    private static int unexpected() {
+        return State.ERROR.ordinal() | UNEXPECTED;
     }
 
+    private enum Input {
+        EOL, VAL, VAR, WHILE, FOR, TO, DO, END, IF, THEN, GOTO, TYPE, ASSIGN, ADD_OP, MULT_OP, REL_OP,
+        OPEN_BRACKET, CLOSE_BRACKET, PUNCT, IDENTIFIER, NUMBER, STRING, BOOLEAN, OTHER, END_OF_INPUT;
 
-    private State performEnd() {
-        if (stateStack.peek() == State.END) {
-            stateStack.poll();
-            return State.EOL;
+        private static Input of(Token token, String name) {
+            switch (token) {
+                case DECLARATION:
+                    return name.equals("val") ? VAL : name.equals("var") ? VAR : OTHER;
+                case LOOP:
+                    switch (name) {
+                        case "while": return WHILE;
+                        case "for": return FOR;
+                        case "to": return TO;
+                        case "do": return DO;
+                        case "end": return END;
+                        default: return OTHER;
+                    }
+                case CONDITION:
+                    return name.equals("if") ? IF : name.equals("then") ? THEN : OTHER;
+                case JUMP: return GOTO;
+                case TYPE: return TYPE;
+                case ASSIGN: return ASSIGN;
+                case ADD_OP: return ADD_OP;
+                case MULT_OP:
+                case POW_OP:
+                    return MULT_OP;
+                case REL_OP: return REL_OP;
+                case BRACKET_OP:
+                    return name.equals("(") ? OPEN_BRACKET : name.equals(")") ? CLOSE_BRACKET : OTHER;
+                case PUNCT: return PUNCT;
+                case IDENTIFIER: return IDENTIFIER;
+                case CONSTANT:
+                    return name.startsWith("'") ? STRING : name.equals("true") || name.equals("false") ? BOOLEAN : NUMBER;
+                default:
+                    return OTHER;
+            }
         }
-
-        return State.ERROR;
     }
 
 }
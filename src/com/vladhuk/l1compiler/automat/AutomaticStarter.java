@@ -1,12 +1,11 @@
 package com.vladhuk.l1compiler.automat;
 
+import com.vladhuk.l1compiler.CompilationUnit;
 import com.vladhuk.l1compiler.lexical.Lexem;
-import com.vladhuk.l1compiler.lexical.Token;
 import com.vladhuk.l1compiler.util.Util;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -14,9 +13,14 @@ import java.util.List;
 public class AutomaticStarter {
 
     public static void start(List<String> rows) {
-        final List<Lexem> lexems = Util.getLexemsFromLexemTable(Util.getSeparatedTables(rows).get(0));
-        addEolsLexems(lexems);
+        check(Util.getLexemsFromLexemTable(Util.getSeparatedTables(rows).get(0)));
+    }
+
+    public static void start(CompilationUnit unit) {
+        check(unit.getLexems());
+    }
 
+    private static void check(List<Lexem> lexems) {
         final boolean isSyntaxCorrect = Automatic.build(lexems).run();
 
         if (isSyntaxCorrect) {
@@ -26,17 +30,8 @@ public class AutomaticStarter {
         }
     }
 
-    public static void addEolsLexems(List<Lexem> lexems) {
-        for (int i = 0; i < lexems.size() - 1; i++) {
-            if (lexems.get(i).getRowNumber() != lexems.get(i + 1).getRowNumber()) {
-                lexems.add(i + 1, new Lexem(lexems.get(i).getRowNumber(), "\n", Token.UNKNOWN));
-                i++;
-            }
-        }
-    }
-
     public static void start(Path tables) throws IOException {
-        start(Files.readAllLines(tables));
+        start(CompilationUnit.read(tables));
     }
 
     public static void start(File tables) throws IOException {
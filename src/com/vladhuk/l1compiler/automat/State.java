@@ -6,7 +6,9 @@ public enum State {
     EOL,
     DECLARATION,
     DECLARATION_OPTIONAL_PUNCT,
+    VAL_DECLARATION_OPTIONAL_PUNCT,
     TYPE,
+    VAL_TYPE,
     ASSIGN,
     OPTIONAL_ASSIGN,
     EXPRESSION,
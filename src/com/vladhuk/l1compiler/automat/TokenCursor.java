@@ -0,0 +1,74 @@
+package com.vladhuk.l1compiler.automat;
+
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Token;
+import com.vladhuk.l1compiler.lexical.TokenStream;
+
+import java.util.List;
+
+
+public class TokenCursor {
+
+    public static final String EOL = "\n";
+
+    private final List<Lexem> lexems;
+    private final TokenStream stream;
+    private final int to;
+    private int index;
+    private boolean eol;
+
+    public TokenCursor(List<Lexem> lexems) {
+        this.lexems = lexems;
+        this.stream = null;
+        this.to = lexems.size();
+    }
+
+    public TokenCursor(TokenStream stream) {
+        this(stream.slice(0, stream.size()));
+    }
+
+    public TokenCursor(TokenStream.Slice slice) {
+        this.lexems = null;
+        this.stream = slice.getStream();
+        this.index = slice.getFrom();
+        this.to = slice.getTo();
+    }
+
+    public boolean hasCurrent() {
+        return index < to;
+    }
+
+    public boolean isEol() {
+        return eol;
+    }
+
+    public Token getToken() {
+        return stream == null ? lexems.get(index).getToken() : stream.getToken(index);
+    }
+
+    public String getName() {
+        return eol ? EOL : nameAt(index);
+    }
+
+    public int getRowNumber() {
+        return rowAt(index);
+    }
+
+    public void advance() {
+        if (!eol && index + 1 < to && rowAt(index) != rowAt(index + 1)) {
+            eol = true;
+        } else {
+            eol = false;
+            index++;
+        }
+    }
+
+    private String nameAt(int index) {
+        return stream == null ? lexems.get(index).getName() : stream.getName(index);
+    }
+
+    private int rowAt(int index) {
+        return stream == null ? lexems.get(index).getRowNumber() : stream.getRowNumber(index);
+    }
+
+}
@@ -0,0 +1,328 @@
+package com.vladhuk.l1compiler.batch;
+
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.interpretation.Interpreter;
+import com.vladhuk.l1compiler.lexical.LexicalAnalyzer;
+import com.vladhuk.l1compiler.syntax.SyntaxAnalyzer;
+import com.vladhuk.l1compiler.tables.TableFormat;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+public class BatchCompiler {
+
+    public static final String SOURCE_EXTENSION = ".l1";
+    public static final String INPUT_EXTENSION = ".in";
+
+    private final int threads;
+    private final Path outputDirectory;
+    private LexicalAnalyzer.Mode lexerMode = LexicalAnalyzer.Mode.DETERMINISTIC;
+    private boolean dumpTables;
+
+    public BatchCompiler(int threads, Path outputDirectory) {
+        this.threads = threads;
+        this.outputDirectory = outputDirectory;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path outputDirectory = Path.of("out", "batch");
+        LexicalAnalyzer.Mode lexerMode = LexicalAnalyzer.Mode.DETERMINISTIC;
+        boolean dumpTables = false;
+        final List<String> inputs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--out=")) {
+                outputDirectory = Path.of(arg.substring("--out=".length()));
+            } else if (arg.equals("--regex-lexer")) {
+                lexerMode = LexicalAnalyzer.Mode.REGEX;
+            } else if (arg.equals("--parallel-lexer")) {
+                lexerMode = LexicalAnalyzer.Mode.PARALLEL;
+            } else if (arg.equals("--dump-tables")) {
+                dumpTables = true;
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            } else {
+                inputs.add(arg);
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: BatchCompiler [--threads=N] [--out=DIR] [--dump-tables] "
+                    + "[--regex-lexer|--parallel-lexer] <directory|file|@list>...");
+            return;
+        }
+
+        final BatchCompiler compiler = new BatchCompiler(threads, outputDirectory);
+        compiler.setLexerMode(lexerMode);
+        compiler.setDumpTables(dumpTables);
+
+        final long start = System.nanoTime();
+        final List<Result> results = compiler.compile(collectSources(inputs), System.out::println);
+        final long wallNanos = System.nanoTime() - start;
+
+        System.out.println();
+        System.out.println(summary(results, wallNanos, threads));
+    }
+
+    public static List<Source> collectSources(List<String> inputs) throws IOException {
+        final List<Source> sources = new ArrayList<>();
+        final Set<String> names = new HashSet<>();
+
+        for (String input : inputs) {
+            if (input.startsWith("@")) {
+                for (String line : Files.readAllLines(Path.of(input.substring(1)))) {
+                    if (!line.isBlank()) {
+                        final Path path = Path.of(line.strip());
+                        sources.add(new Source(path, uniqueName(names, stripExtension(path.getFileName().toString()))));
+                    }
+                }
+                continue;
+            }
+
+            final Path path = Path.of(input);
+            if (!Files.isDirectory(path)) {
+                sources.add(new Source(path, uniqueName(names, stripExtension(path.getFileName().toString()))));
+                continue;
+            }
+
+            final List<Path> files;
+            try (Stream<Path> walk = Files.walk(path)) {
+                files = walk.filter(Files::isRegularFile)
+                        .filter(file -> file.getFileName().toString().endsWith(SOURCE_EXTENSION))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                sources.add(new Source(file, uniqueName(names, stripExtension(path.relativize(file).toString()))));
+            }
+        }
+
+        return sources;
+    }
+
+    private static String stripExtension(String name) {
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static String uniqueName(Set<String> names, String name) {
+        String unique = name;
+        for (int i = 2; !names.add(unique); i++) {
+            unique = name + '-' + i;
+        }
+        return unique;
+    }
+
+    public List<Result> compile(List<Source> sources, ResultListener listener) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            final List<Future<Result>> futures = new ArrayList<>(sources.size());
+            for (Source source : sources) {
+                futures.add(executor.submit(() -> compile(source)));
+            }
+
+            final List<Result> results = new ArrayList<>(sources.size());
+            for (Future<Result> future : futures) {
+                final Result result;
+                try {
+                    result = future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+                listener.accept(result);
+                results.add(result);
+            }
+
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public Result compile(Source source) {
+        final Path destination = outputDirectory.resolve(source.getName());
+        final Result result = new Result(source, destination);
+        final ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+        final PrintStream err = new PrintStream(errBytes, true, StandardCharsets.UTF_8);
+
+        try {
+            Files.createDirectories(destination);
+            result.bytes = Files.size(source.getPath());
+
+            long start = System.nanoTime();
+            final CompilationUnit unit = LexicalAnalyzer.analyze(source.getPath(), lexerMode, err);
+            result.lexNanos = System.nanoTime() - start;
+            if (dumpTables) {
+                unit.writeLexemTables(destination.resolve("L1_lexems.txt"), TableFormat.TEXT);
+            }
+
+            start = System.nanoTime();
+            final boolean isSyntaxCorrect = SyntaxAnalyzer.analyze(unit, err);
+            result.parseNanos = System.nanoTime() - start;
+            if (dumpTables) {
+                unit.writeRpnTables(destination.resolve("L1_translation.txt"), TableFormat.TEXT);
+            }
+
+            if (isSyntaxCorrect) {
+                try (InputStream in = openInput(source.getPath());
+                     PrintStream out = new PrintStream(new BufferedOutputStream(
+                             Files.newOutputStream(destination.resolve("stdout.txt"))), false, StandardCharsets.UTF_8)) {
+                    start = System.nanoTime();
+                    final String interpretation = Interpreter.interpret(unit, in, out, err);
+                    result.interpretNanos = System.nanoTime() - start;
+
+                    Files.writeString(destination.resolve("L1_interpretation.txt"), interpretation);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            err.println(e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+
+        err.flush();
+        result.errors = errBytes.size() > 0;
+
+        try {
+            Files.write(destination.resolve("stderr.txt"), errBytes.toByteArray());
+        } catch (IOException e) {
+            result.errors = true;
+        }
+
+        return result;
+    }
+
+    private static InputStream openInput(Path source) throws IOException {
+        final Path input = source.resolveSibling(stripExtension(source.getFileName().toString()) + INPUT_EXTENSION);
+        return Files.isRegularFile(input) ? Files.newInputStream(input) : new ByteArrayInputStream(new byte[0]);
+    }
+
+    public static String summary(List<Result> results, long wallNanos, int threads) {
+        long bytes = 0;
+        long cpuNanos = 0;
+        int failed = 0;
+
+        for (Result result : results) {
+            bytes += result.bytes;
+            cpuNanos += result.getTotalNanos();
+            if (result.errors) {
+                failed++;
+            }
+        }
+
+        final double seconds = wallNanos / 1e9;
+        return String.format("Files: %d (%d with errors), threads: %d%n"
+                        + "Source: %.2f MB, wall time: %.3f s, compile time: %.3f s, parallelism: %.2fx%n"
+                        + "Throughput: %.2f files/s, %.2f MB/s",
+                results.size(), failed, threads,
+                bytes / (1024.0 * 1024), seconds, cpuNanos / 1e9, wallNanos == 0 ? 0 : (double) cpuNanos / wallNanos,
+                results.size() / seconds, bytes / (1024.0 * 1024) / seconds);
+    }
+
+    public LexicalAnalyzer.Mode getLexerMode() {
+        return lexerMode;
+    }
+    public void setLexerMode(LexicalAnalyzer.Mode lexerMode) {
+        this.lexerMode = lexerMode;
+    }
+    public boolean isDumpTables() {
+        return dumpTables;
+    }
+    public void setDumpTables(boolean dumpTables) {
+        this.dumpTables = dumpTables;
+    }
+
+    public interface ResultListener {
+        void accept(Result result);
+    }
+
+    public static class Source {
+
+        private final Path path;
+        private final String name;
+
+        public Source(Path path, String name) {
+            this.path = path;
+            this.name = name;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+        public String getName() {
+            return name;
+        }
+
+    }
+
+    public static class Result {
+
+        private final Source source;
+        private final Path destination;
+        private long bytes;
+        private long lexNanos;
+        private long parseNanos;
+        private long interpretNanos;
+        private boolean errors;
+
+        private Result(Source source, Path destination) {
+            this.source = source;
+            this.destination = destination;
+        }
+
+        public long getTotalNanos() {
+            return lexNanos + parseNanos + interpretNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %10d B  lex %9.3f ms  parse %9.3f ms  interpret %9.3f ms  %s",
+                    source.getName(), bytes, lexNanos / 1e6, parseNanos / 1e6, interpretNanos / 1e6,
+                    errors ? "ERRORS (" + destination.resolve("stderr.txt") + ')' : "ok");
+        }
+
+        public Source getSource() {
+            return source;
+        }
+        public Path getDestination() {
+            return destination;
+        }
+        public long getBytes() {
+            return bytes;
+        }
+        public long getLexNanos() {
+            return lexNanos;
+        }
+        public long getParseNanos() {
+            return parseNanos;
+        }
+        public long getInterpretNanos() {
+            return interpretNanos;
+        }
+        public boolean hasErrors() {
+            return errors;
+        }
+
+    }
+
+}
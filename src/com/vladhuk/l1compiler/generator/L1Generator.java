@@ -0,0 +1,365 @@
+package com.vladhuk.l1compiler.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+
+public class L1Generator {
+
+    private static final String[] ARITHM_OPERATORS = {"+", "-", "*", "/", "^"};
+    private static final String[] REL_OPERATORS = {"==", "!=", "<", ">", "<=", ">="};
+    private static final String[] WORDS = {"alpha", "beta", "gamma", "delta", "hello", "world", "l1", "x y z"};
+
+    private final Random random;
+
+    private long targetSize = 64 * 1024;
+    private int identifierCount = 32;
+    private int maxExpressionDepth = 3;
+    private int maxExpressionOperands = 6;
+    private int maxLoopNesting = 3;
+    private int maxLoopIterations = 3;
+    private int maxBlockStatements = 8;
+
+    private final List<String> numberVariables = new ArrayList<>();
+    private final List<String> numberValues = new ArrayList<>();
+    private final List<String> booleanVariables = new ArrayList<>();
+    private final List<String> stringVariables = new ArrayList<>();
+
+    private Writer out;
+    private long written;
+    private int labelCount;
+
+    public L1Generator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public String generate() {
+        final StringWriter writer = new StringWriter();
+        generate(writer);
+        return writer.toString();
+    }
+
+    public void generate(Path destination) throws IOException {
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(destination), StandardCharsets.US_ASCII), 1 << 16)) {
+            generate(writer);
+        }
+    }
+
+    public void generate(Writer writer) {
+        out = writer;
+        written = 0;
+        labelCount = 0;
+        numberVariables.clear();
+        numberValues.clear();
+        booleanVariables.clear();
+        stringVariables.clear();
+
+        declarations();
+
+        while (written < targetSize) {
+            block(0, 1 + random.nextInt(maxBlockStatements));
+        }
+
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String generateArithmExpression() {
+        if (numberValues.isEmpty()) {
+            numberValues.add("0");
+        }
+        return arithmExpression(maxExpressionDepth);
+    }
+
+    private void declarations() {
+        for (int i = 0; i < maxLoopNesting; i++) {
+            line(0, "var c" + i + ": number = 0");
+        }
+
+        for (int i = 0; i < identifierCount; i++) {
+            final int kind = i == 0 ? 0 : random.nextInt(10);
+
+            if (kind < 6) {
+                final String name = "n" + i;
+                line(0, declaration("var", name, "number", numberValues.isEmpty() ? number() : arithmExpression(1)));
+                numberVariables.add(name);
+                numberValues.add(name);
+            } else if (kind < 7) {
+                final String name = "k" + i;
+                line(0, declaration("val", name, "number", numberValues.isEmpty() ? number() : arithmExpression(1)));
+                numberValues.add(name);
+            } else if (kind < 9) {
+                final String name = "b" + i;
+                line(0, declaration("var", name, "boolean", random.nextBoolean() ? "true" : relation(1)));
+                booleanVariables.add(name);
+            } else {
+                final String name = "s" + i;
+                line(0, declaration("var", name, "string", string()));
+                stringVariables.add(name);
+            }
+        }
+
+        for (int i = 0; i < maxLoopNesting; i++) {
+            numberValues.add("c" + i);
+        }
+    }
+
+    private String declaration(String keyword, String name, String type, String expression) {
+        return random.nextBoolean()
+                ? keyword + " " + name + ": " + type + " = " + expression
+                : keyword + " " + name + ":" + type + "=" + expression;
+    }
+
+    private void block(int level, int statements) {
+        final List<Integer> pendingLabels = new ArrayList<>();
+
+        for (int i = 0; i < statements; i++) {
+            if (!pendingLabels.isEmpty() && random.nextInt(3) == 0) {
+                line(level, "l" + pendingLabels.remove(0) + ":");
+            }
+
+            final int kind = random.nextInt(20);
+
+            if (kind < 3 && level < maxLoopNesting) {
+                loop(level);
+            } else if (kind < 5) {
+                pendingLabels.add(condition(level));
+            } else if (kind < 7 && !booleanVariables.isEmpty()) {
+                line(level, pick(booleanVariables) + " = " + (random.nextInt(4) == 0 ? bool() : relation(maxExpressionDepth)));
+            } else if (kind < 8 && !stringVariables.isEmpty()) {
+                line(level, pick(stringVariables) + " = " + (random.nextBoolean() ? string() : pick(stringVariables)));
+            } else {
+                line(level, pick(numberVariables) + " = " + arithmExpression(maxExpressionDepth));
+            }
+        }
+
+        for (int label : pendingLabels) {
+            line(level, "l" + label + ":");
+        }
+    }
+
+    private void loop(int level) {
+        final String counter = "c" + level;
+        final int iterations = 1 + random.nextInt(maxLoopIterations);
+
+        if (random.nextBoolean()) {
+            line(level, "for " + counter + " = 0 to " + iterations);
+        } else {
+            line(level, counter + " = 0");
+            line(level, "while " + counter + " < " + iterations);
+        }
+
+        line(level, "do");
+        block(level + 1, 1 + random.nextInt(maxBlockStatements));
+        line(level + 1, counter + " = " + counter + " + 1");
+        line(level, "end");
+    }
+
+    private int condition(int level) {
+        final int label = labelCount++;
+        final String condition = random.nextInt(4) == 0 && !booleanVariables.isEmpty()
+                ? pick(booleanVariables)
+                : relation(maxExpressionDepth);
+
+        line(level, "if " + condition);
+        line(level, "then");
+        line(level + 1, "goto l" + label);
+
+        return label;
+    }
+
+    private String relation(int depth) {
+        return relationOperand(depth) + " " + pick(REL_OPERATORS) + " " + relationOperand(depth);
+    }
+
+    private String relationOperand(int depth) {
+        return depth > 0 && random.nextBoolean()
+                ? "(" + arithmExpression(depth - 1) + ")"
+                : factor(0);
+    }
+
+    private String arithmExpression(int depth) {
+        final StringBuilder expression = new StringBuilder();
+        final int operands = 1 + random.nextInt(depth == 0 ? 1 : maxExpressionOperands);
+
+        if (random.nextInt(8) == 0) {
+            expression.append(random.nextBoolean() ? "-" : "+");
+        }
+
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) {
+                expression.append(' ').append(pick(ARITHM_OPERATORS)).append(' ');
+            }
+            expression.append(factor(depth));
+        }
+
+        return expression.toString();
+    }
+
+    private String factor(int depth) {
+        final int kind = random.nextInt(depth > 0 ? 5 : 4);
+
+        if (kind < 2) {
+            return pick(numberValues);
+        } else if (kind < 4) {
+            return number();
+        } else {
+            return "(" + arithmExpression(depth - 1) + ")";
+        }
+    }
+
+    private String number() {
+        switch (random.nextInt(4)) {
+            case 0: return random.nextInt(100) + "." + random.nextInt(100);
+            case 1: return (1 + random.nextInt(9)) + "e" + (random.nextBoolean() ? "+" : "-") + random.nextInt(3);
+            default: return String.valueOf(random.nextInt(1000));
+        }
+    }
+
+    private String bool() {
+        return random.nextBoolean() ? "true" : "false";
+    }
+
+    private String string() {
+        return "'" + pick(WORDS) + "'";
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private String pick(List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private void line(int level, String text) {
+        try {
+            for (int i = 0; i < level; i++) {
+                out.write('\t');
+            }
+            out.write(text);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        written += level + text.length() + 1;
+    }
+
+    public static long parseSize(String size) {
+        final String normalized = size.trim().toUpperCase();
+        final long multiplier = normalized.endsWith("GB") ? 1L << 30
+                : normalized.endsWith("MB") ? 1L << 20
+                : normalized.endsWith("KB") ? 1L << 10
+                : 1;
+        final String digits = multiplier == 1 ? normalized : normalized.substring(0, normalized.length() - 2);
+        return Long.parseLong(digits.trim()) * multiplier;
+    }
+
+    public static L1Generator fromOptions(Map<String, String> options) {
+        final L1Generator generator = new L1Generator(Long.parseLong(options.getOrDefault("seed", "1")));
+
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            final String value = option.getValue();
+
+            switch (option.getKey()) {
+                case "seed": break;
+                case "size": generator.setTargetSize(parseSize(value)); break;
+                case "identifiers": generator.setIdentifierCount(Integer.parseInt(value)); break;
+                case "depth": generator.setMaxExpressionDepth(Integer.parseInt(value)); break;
+                case "operands": generator.setMaxExpressionOperands(Integer.parseInt(value)); break;
+                case "nesting": generator.setMaxLoopNesting(Integer.parseInt(value)); break;
+                case "iterations": generator.setMaxLoopIterations(Integer.parseInt(value)); break;
+                case "statements": generator.setMaxBlockStatements(Integer.parseInt(value)); break;
+                default: throw new IllegalArgumentException("Unknown generator option: " + option.getKey());
+            }
+        }
+
+        return generator;
+    }
+
+    public static void main(String[] args) throws IOException {
+        final Map<String, String> options = new HashMap<>();
+        String destination = null;
+
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                destination = arg;
+                continue;
+            }
+
+            final String[] option = arg.substring(2).split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Expected option in form --name=value, but found: " + arg);
+            }
+            options.put(option[0], option[1]);
+        }
+
+        final L1Generator generator = fromOptions(options);
+
+        if (destination == null) {
+            generator.generate(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII), 1 << 16));
+        } else {
+            generator.generate(Path.of(destination));
+        }
+    }
+
+    public long getTargetSize() {
+        return targetSize;
+    }
+    public void setTargetSize(long targetSize) {
+        this.targetSize = targetSize;
+    }
+    public int getIdentifierCount() {
+        return identifierCount;
+    }
+    public void setIdentifierCount(int identifierCount) {
+        this.identifierCount = Math.max(identifierCount, 1);
+    }
+    public int getMaxExpressionDepth() {
+        return maxExpressionDepth;
+    }
+    public void setMaxExpressionDepth(int maxExpressionDepth) {
+        this.maxExpressionDepth = Math.max(maxExpressionDepth, 0);
+    }
+    public int getMaxExpressionOperands() {
+        return maxExpressionOperands;
+    }
+    public void setMaxExpressionOperands(int maxExpressionOperands) {
+        this.maxExpressionOperands = Math.max(maxExpressionOperands, 1);
+    }
+    public int getMaxLoopNesting() {
+        return maxLoopNesting;
+    }
+    public void setMaxLoopNesting(int maxLoopNesting) {
+        this.maxLoopNesting = Math.max(maxLoopNesting, 0);
+    }
+    public int getMaxLoopIterations() {
+        return maxLoopIterations;
+    }
+    public void setMaxLoopIterations(int maxLoopIterations) {
+        this.maxLoopIterations = Math.max(maxLoopIterations, 1);
+    }
+    public int getMaxBlockStatements() {
+        return maxBlockStatements;
+    }
+    public void setMaxBlockStatements(int maxBlockStatements) {
+        this.maxBlockStatements = Math.max(maxBlockStatements, 1);
+    }
+
+}
@@ -0,0 +1,440 @@
+package com.vladhuk.l1compiler.incremental;
+
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.LexemScanner;
+import com.vladhuk.l1compiler.lexical.LexicalAnalyzer;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+import com.vladhuk.l1compiler.lexical.Token;
+import com.vladhuk.l1compiler.syntax.Grammar;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+
+public class IncrementalCompiler {
+
+    private static final int[] NO_MARKS = new int[0];
+
+    private final StringBuilder text;
+    private final Consumer<Lexem> unknownReporter;
+
+    private final List<Lexem> lexems = new ArrayList<>();
+    private final SymbolTable constants = new SymbolTable();
+    private final SymbolTable identifiers = new SymbolTable();
+    private final List<Statement> statements = new ArrayList<>();
+
+    private int[] constantUses = new int[16];
+    private int[] identifierUses = new int[16];
+
+    private int[] rowStarts = new int[16];
+    private int rowCount;
+
+    public IncrementalCompiler(String text) {
+        this(text, System.err);
+    }
+
+    public IncrementalCompiler(String text, PrintStream err) {
+        this.text = new StringBuilder(text);
+        this.unknownReporter = unknown -> LexemScanner.reportUnknown(unknown, err);
+
+        rowCount = 1;
+        replaceRows(0, 0, findRowStarts(0, text.length()), 0);
+
+        lexems.addAll(lex(0, text.length(), 1));
+        parseStatements(0, 0, lexems.size());
+    }
+
+    public void edit(int offset, int removedLength, String inserted) {
+        if (offset < 0 || removedLength < 0 || offset + removedLength > text.length()) {
+            throw new IndexOutOfBoundsException("Edit [" + offset + ", " + (offset + removedLength)
+                    + ") is out of text bounds [0, " + text.length() + ")");
+        }
+
+        final int firstRow = rowOf(offset);
+        final int lastRow = rowOf(offset + removedLength);
+        final int spanStart = rowStarts[firstRow];
+        final int oldSpanEnd = lastRow + 1 < rowCount ? rowStarts[lastRow + 1] - 1 : text.length();
+
+        text.replace(offset, offset + removedLength, inserted);
+
+        final int charDelta = inserted.length() - removedLength;
+        final int spanEnd = oldSpanEnd + charDelta;
+        final int[] spanRowStarts = findRowStarts(spanStart, spanEnd);
+        final int rowDelta = spanRowStarts.length - (lastRow - firstRow);
+        replaceRows(firstRow, lastRow, spanRowStarts, charDelta);
+
+        final int from = firstLexemAfterRow(firstRow);
+        final int to = firstLexemAfterRow(lastRow + 1);
+        final List<Lexem> spanLexems = lex(spanStart, spanEnd, firstRow + 1);
+
+        final List<Lexem> removed = lexems.subList(from, to);
+        for (Lexem lexem : removed) {
+            releaseUse(lexem);
+        }
+        removed.clear();
+        lexems.addAll(from, spanLexems);
+
+        final int editEnd = from + spanLexems.size();
+        if (rowDelta != 0) {
+            for (int i = editEnd; i < lexems.size(); i++) {
+                final Lexem lexem = lexems.get(i);
+                lexem.setRowNumber(lexem.getRowNumber() + rowDelta);
+            }
+        }
+
+        reparse(from, to, editEnd, rowDelta);
+    }
+
+    private void reparse(int from, int to, int editEnd, int rowDelta) {
+        int first = from == 0 ? 0 : statementAt(from - 1);
+        for (int i = 0; i < first; i++) {
+            if (!statements.get(i).valid) {
+                first = i;
+                break;
+            }
+        }
+
+        int last = first;
+        while (last < statements.size() && statements.get(last).from < to) {
+            last++;
+        }
+
+        final int start = first < statements.size() ? statements.get(first).from : 0;
+        removeStatements(first, last);
+
+        final int lexemDelta = editEnd - to;
+        for (int i = first; i < statements.size(); i++) {
+            final Statement statement = statements.get(i);
+            statement.from += lexemDelta;
+            statement.to += lexemDelta;
+
+            if (rowDelta != 0) {
+                for (Lexem symbol : statement.rpn) {
+                    if (symbol.getRowNumber() != -1) {
+                        symbol.setRowNumber(symbol.getRowNumber() + rowDelta);
+                    }
+                }
+            }
+        }
+
+        parseStatements(first, start, editEnd);
+    }
+
+    private void parseStatements(int index, int start, int editEnd) {
+        final Grammar grammar = new Grammar();
+        grammar.setIdentifiers(identifiers);
+
+        final List<Statement> parsed = new ArrayList<>();
+        int next = index;
+        int position = start;
+
+        while (position < lexems.size()) {
+            while (next < statements.size() && statements.get(next).from < position) {
+                next++;
+            }
+            if (position >= editEnd && next < statements.size() && statements.get(next).from == position) {
+                break;
+            }
+
+            final Statement statement = parseStatement(grammar, position);
+            parsed.add(statement);
+            position = statement.to;
+        }
+
+        if (position >= lexems.size()) {
+            next = statements.size();
+        }
+
+        removeStatements(index, next);
+        statements.addAll(index, parsed);
+    }
+
+    private void removeStatements(int from, int to) {
+        final List<Statement> removed = statements.subList(from, to);
+        for (Statement statement : removed) {
+            releaseMarks(statement.marks);
+        }
+        removed.clear();
+    }
+
+    private Statement parseStatement(Grammar grammar, int from) {
+        final List<Lexem> rpn = grammar.getRpn();
+        final int checkpoint = rpn.size();
+        final int markCheckpoint = grammar.getMarks().size();
+        final int end = grammar.StatementAt(lexems, from);
+        final int rowNumber = lexems.get(from).getRowNumber();
+
+        final List<Lexem> createdMarks = grammar.getMarks().subList(markCheckpoint, grammar.getMarks().size());
+        final int[] marks = new int[createdMarks.size()];
+        for (int i = 0; i < marks.length; i++) {
+            marks[i] = createdMarks.get(i).getIndex();
+        }
+
+        if (end != -1) {
+            final List<Lexem> statementRpn = new ArrayList<>(rpn.size() - checkpoint);
+            for (int i = checkpoint; i < rpn.size(); i++) {
+                statementRpn.add(new Lexem(rpn.get(i)));
+            }
+            return new Statement(from, end, rowNumber, statementRpn, marks, true, null);
+        }
+
+        releaseMarks(marks);
+
+        int nextRow = from + 1;
+        while (nextRow < lexems.size() && lexems.get(nextRow).getRowNumber() == rowNumber) {
+            nextRow++;
+        }
+        return new Statement(from, nextRow, rowNumber, Collections.emptyList(), NO_MARKS, false, grammar.getError());
+    }
+
+    private void releaseMarks(int[] marks) {
+        for (int mark : marks) {
+            identifiers.release(mark);
+        }
+    }
+
+    private List<Lexem> lex(int from, int to, int firstRowNumber) {
+        final List<Lexem> scanned = new ArrayList<>();
+        LexemScanner.scan(text, from, to, firstRowNumber, scanned::add, unknownReporter);
+
+        for (Lexem lexem : scanned) {
+            LexicalAnalyzer.addLexemIndex(lexem, constants, identifiers);
+            retainUse(lexem);
+        }
+        return scanned;
+    }
+
+    private void retainUse(Lexem lexem) {
+        if (lexem.getToken() == Token.CONSTANT) {
+            constantUses = retain(constantUses, lexem.getIndex());
+        } else if (lexem.getToken() == Token.IDENTIFIER) {
+            identifierUses = retain(identifierUses, lexem.getIndex());
+        }
+    }
+
+    private void releaseUse(Lexem lexem) {
+        if (lexem.getToken() == Token.CONSTANT && --constantUses[lexem.getIndex()] == 0) {
+            constants.release(lexem.getIndex());
+        } else if (lexem.getToken() == Token.IDENTIFIER && --identifierUses[lexem.getIndex()] == 0) {
+            identifiers.release(lexem.getIndex());
+        }
+    }
+
+    private static int[] retain(int[] uses, int index) {
+        if (index >= uses.length) {
+            uses = Arrays.copyOf(uses, Math.max(index + 1, uses.length * 2));
+        }
+        uses[index]++;
+        return uses;
+    }
+
+    private int[] findRowStarts(int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+
+        final int[] starts = new int[count];
+        count = 0;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '\n') {
+                starts[count++] = i + 1;
+            }
+        }
+        return starts;
+    }
+
+    private void replaceRows(int firstRow, int lastRow, int[] spanRowStarts, int charDelta) {
+        final int tail = rowCount - (lastRow + 1);
+        final int newRowCount = firstRow + 1 + spanRowStarts.length + tail;
+
+        if (newRowCount > rowStarts.length) {
+            rowStarts = Arrays.copyOf(rowStarts, Math.max(newRowCount, rowStarts.length * 2));
+        }
+
+        final int tailStart = firstRow + 1 + spanRowStarts.length;
+        System.arraycopy(rowStarts, lastRow + 1, rowStarts, tailStart, tail);
+        System.arraycopy(spanRowStarts, 0, rowStarts, firstRow + 1, spanRowStarts.length);
+
+        if (charDelta != 0) {
+            for (int i = tailStart; i < newRowCount; i++) {
+                rowStarts[i] += charDelta;
+            }
+        }
+        rowCount = newRowCount;
+    }
+
+    private int rowOf(int offset) {
+        int low = 0;
+        int high = rowCount - 1;
+
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (rowStarts[middle] <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private int firstLexemAfterRow(int rowNumber) {
+        int low = 0;
+        int high = lexems.size();
+
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (lexems.get(middle).getRowNumber() <= rowNumber) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int statementAt(int lexemIndex) {
+        int low = 0;
+        int high = statements.size() - 1;
+
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (statements.get(middle).from <= lexemIndex) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return Math.max(low, 0);
+    }
+
+    public boolean isSyntaxCorrect() {
+        if (lexems.isEmpty()) {
+            return false;
+        }
+        for (Statement statement : statements) {
+            if (!statement.valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getError() {
+        for (int i = 0; i < statements.size(); i++) {
+            final Statement statement = statements.get(i);
+            if (statement.valid) {
+                continue;
+            }
+
+            if (statement.rowNumber != lexems.get(statement.from).getRowNumber()) {
+                final Grammar grammar = new Grammar();
+                grammar.setIdentifiers(identifiers);
+                statements.set(i, parseStatement(grammar, statement.from));
+            }
+            return statements.get(i).error;
+        }
+        return null;
+    }
+
+    public List<Lexem> getRpn() {
+        final List<Lexem> rpn = new ArrayList<>();
+        for (Statement statement : statements) {
+            if (!statement.valid) {
+                break;
+            }
+            rpn.addAll(statement.rpn);
+        }
+        return rpn;
+    }
+
+    public CompilationUnit toCompilationUnit() {
+        final SymbolTable constantsCopy = new SymbolTable();
+        final int[] constantIndexes = compact(constants, constantsCopy);
+        final SymbolTable identifiersCopy = new SymbolTable();
+        final int[] identifierIndexes = compact(identifiers, identifiersCopy);
+
+        final CompilationUnit unit = new CompilationUnit(
+                reindex(lexems, constantIndexes, identifierIndexes), constantsCopy, identifiersCopy);
+        unit.setRpn(reindex(getRpn(), constantIndexes, identifierIndexes));
+        return unit;
+    }
+
+    private static int[] compact(SymbolTable table, SymbolTable destination) {
+        final int[] indexes = new int[table.size()];
+        for (int i = 0; i < table.size(); i++) {
+            if (table.isReleased(i)) {
+                indexes[i] = -1;
+                continue;
+            }
+
+            final Pair pair = new Pair(table.get(i));
+            pair.setIndex(destination.size());
+            destination.add(pair);
+            indexes[i] = pair.getIndex();
+        }
+        return indexes;
+    }
+
+    private static List<Lexem> reindex(List<Lexem> symbols, int[] constantIndexes, int[] identifierIndexes) {
+        final List<Lexem> reindexed = new ArrayList<>(symbols.size());
+        for (Lexem symbol : symbols) {
+            final Lexem copy = new Lexem(symbol);
+            if (copy.getToken() == Token.CONSTANT && copy.getIndex() >= 0) {
+                copy.setIndex(constantIndexes[copy.getIndex()]);
+            } else if (copy.getToken() == Token.IDENTIFIER && copy.getIndex() >= 0) {
+                copy.setIndex(identifierIndexes[copy.getIndex()]);
+            }
+            reindexed.add(copy);
+        }
+        return reindexed;
+    }
+
+    public String getText() {
+        return text.toString();
+    }
+    public List<Lexem> getLexems() {
+        return Collections.unmodifiableList(lexems);
+    }
+    public SymbolTable getConstants() {
+        return constants;
+    }
+    public SymbolTable getIdentifiers() {
+        return identifiers;
+    }
+    public int getStatementCount() {
+        return statements.size();
+    }
+
+    private static class Statement {
+
+        private int from;
+        private int to;
+        private final int rowNumber;
+        private final List<Lexem> rpn;
+        private final int[] marks;
+        private final boolean valid;
+        private final String error;
+
+        private Statement(int from, int to, int rowNumber, List<Lexem> rpn, int[] marks, boolean valid, String error) {
+            this.from = from;
+            this.to = to;
+            this.rowNumber = rowNumber;
+            this.rpn = rpn;
+            this.marks = marks;
+            this.valid = valid;
+            this.error = error;
+        }
+
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.vladhuk.l1compiler.interpretation;
+
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Token;
+import com.vladhuk.l1compiler.lexical.TokenStream;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+public class Bytecode {
+
+    public static final int NO_TARGET = -1;
+
+    private final String[] names;
+    private final Token[] tokens;
+    private final int[] indices;
+    private final int[] rows;
+    private final int[] marks;
+    private final int[] targets;
+    private final Opcode[] opcodes;
+    private final TokenStream stream;
+
+    private Bytecode(TokenStream stream, int size) {
+        this.stream = stream;
+        this.names = new String[size];
+        this.tokens = new Token[size];
+        this.indices = new int[size];
+        this.rows = new int[size];
+        this.marks = new int[size];
+        this.targets = new int[size];
+        this.opcodes = new Opcode[size];
+    }
+
+    private Bytecode(Bytecode code, int size) {
+        this.stream = code.stream;
+        this.names = Arrays.copyOf(code.names, size);
+        this.tokens = Arrays.copyOf(code.tokens, size);
+        this.indices = Arrays.copyOf(code.indices, size);
+        this.rows = Arrays.copyOf(code.rows, size);
+        this.marks = Arrays.copyOf(code.marks, size);
+        this.targets = Arrays.copyOf(code.targets, size);
+        this.opcodes = Arrays.copyOf(code.opcodes, size);
+    }
+
+    public static Bytecode compile(List<Lexem> rpn) {
+        return compile(TokenStream.of(rpn));
+    }
+
+    public static Bytecode compile(TokenStream rpn) {
+        return compile(rpn.slice(0, rpn.size()));
+    }
+
+    public static Bytecode compile(TokenStream.Slice rpn) {
+        final TokenStream stream = rpn.getStream();
+        final int from = rpn.getFrom();
+        final int to = rpn.getTo();
+
+        final Bytecode code = new Bytecode(stream, to - from);
+        final Map<Integer, Integer> labels = new HashMap<>();
+        int size = 0;
+
+        for (int i = from; i < to; i++) {
+            final boolean hasNext = i + 1 < to;
+
+            if (isMark(stream, i) && hasNext && isLabelDefinition(stream, i + 1)) {
+                labels.putIfAbsent(stream.getIndex(i), size);
+                i++;
+            } else if (isMark(stream, i) && hasNext && isJump(stream, i + 1)) {
+                code.add(size++, stream, i + 1, i);
+                i++;
+            } else if (isJump(stream, i)) {
+                throw new RuntimeException(stream.getRowNumber(i) + ": Expected mark before '" + stream.getName(i) + "'.");
+            } else {
+                code.add(size++, stream, i, -1);
+            }
+        }
+
+        final Bytecode bytecode = new Bytecode(code, size);
+        for (int pc = 0; pc < size; pc++) {
+            bytecode.targets[pc] = bytecode.marks[pc] == -1
+                    ? NO_TARGET
+                    : labels.getOrDefault(stream.getIndex(bytecode.marks[pc]), NO_TARGET);
+        }
+
+        return bytecode;
+    }
+
+    private void add(int pc, TokenStream stream, int position, int mark) {
+        names[pc] = stream.getName(position);
+        tokens[pc] = stream.getToken(position);
+        indices[pc] = stream.getIndex(position);
+        rows[pc] = stream.getRowNumber(position);
+        marks[pc] = mark;
+        opcodes[pc] = Opcode.of(tokens[pc], names[pc]);
+    }
+
+    private static boolean isMark(TokenStream stream, int position) {
+        return stream.getToken(position) == Token.IDENTIFIER;
+    }
+
+    private static boolean isLabelDefinition(TokenStream stream, int position) {
+        return stream.getToken(position) == Token.PUNCT && stream.getName(position).equals(":");
+    }
+
+    private static boolean isJump(TokenStream stream, int position) {
+        final String name = stream.getName(position);
+        return name.equals("goto") || name.equals("if");
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int pc) {
+        return names[pc];
+    }
+
+    public Token getToken(int pc) {
+        return tokens[pc];
+    }
+
+    public int getIndex(int pc) {
+        return indices[pc];
+    }
+
+    public int getRowNumber(int pc) {
+        return rows[pc];
+    }
+
+    public String getMarkName(int pc) {
+        return stream.getName(marks[pc]);
+    }
+
+    public int getMarkIndex(int pc) {
+        return stream.getIndex(marks[pc]);
+    }
+
+    public int getMarkRowNumber(int pc) {
+        return stream.getRowNumber(marks[pc]);
+    }
+
+    public int getTarget(int pc) {
+        return targets[pc];
+    }
+
+    public Opcode getOpcode(int pc) {
+        return opcodes[pc];
+    }
+
+    public void setOpcode(int pc, Opcode opcode) {
+        opcodes[pc] = opcode;
+    }
+
+}
@@ -1,47 +1,79 @@
 package com.vladhuk.l1compiler.interpretation;
 
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.io.ProgramInput;
+import com.vladhuk.l1compiler.io.ProgramOutput;
 import com.vladhuk.l1compiler.lexical.Lexem;
 import com.vladhuk.l1compiler.lexical.Pair;
-import com.vladhuk.l1compiler.lexical.Token;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+import com.vladhuk.l1compiler.lexical.TokenStream;
+import com.vladhuk.l1compiler.optimization.LoopInvariantHoister;
+import com.vladhuk.l1compiler.semantic.SemanticAnalyzer;
 import com.vladhuk.l1compiler.util.Util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Scanner;
-import java.util.function.BiFunction;
-import java.util.stream.Collectors;
+import java.util.function.DoubleBinaryOperator;
 
 
 public class Interpreter {
 
-    private List<Pair> constants;
-    private List<Pair> identifiers;
+    private final ValueStack stack = new ValueStack();
+
+    private final SymbolTable constants;
+    private final List<Pair> identifiers;
+    private Variables variables;
+
+    private ProgramInput input;
+    private ProgramOutput output;
+
+    private byte[] constantTags;
+    private long[] constantValues;
+    private String[] constantTexts;
+
+    public Interpreter(SymbolTable constants, List<Pair> identifiers) {
+        this.constants = constants;
+        this.identifiers = identifiers;
+    }
 
     public static String interpret(List<String> rows) {
-        final List<List<String>> tables = Util.getSeparatedTables(rows);
+        final CompilationUnit unit = CompilationUnit.fromTables(rows);
+        unit.setRpn(unit.getLexems());
+        return interpret(unit);
+    }
 
-        final List<Lexem> rpn = Util.getLexemsFromLexemTable(tables.get(0));
+    public static String interpret(CompilationUnit unit) {
+        return interpret(unit, System.in, System.out, System.err);
+    }
+
+    public static String interpret(CompilationUnit unit, InputStream in, PrintStream out, PrintStream err) {
+        return interpret(unit, new ProgramInput(in), new ProgramOutput(out), err);
+    }
 
-        final Interpreter interpreter = new Interpreter();
-        interpreter.constants = Util.getPairsFromTable(tables.get(1));
-        interpreter.identifiers = Util.getPairsFromTable(tables.get(2));
+    public static String interpret(CompilationUnit unit, ProgramInput input, ProgramOutput output, PrintStream err) {
+        final Interpreter interpreter = new Interpreter(unit.getConstants(), unit.getIdentifiers());
+        interpreter.setOutput(output);
+        interpreter.setInput(input);
 
         try {
-            final List<Pair> newIdentifiers = interpreter.calculate(rpn);
-            return Util.tableToString(newIdentifiers);
+            final List<Pair> newIdentifiers = interpreter.calculate(unit.getRpn());
+            return Util.tableToString(LoopInvariantHoister.withoutTemporaries(newIdentifiers));
         } catch (RuntimeException e) {
-            System.err.println(e.getMessage());
+            err.println(e.getMessage());
         }
 
         return "";
     }
 
     public static void interpret(Path tables, Path destination) throws IOException {
-        Files.writeString(destination, interpret(Files.readAllLines(tables)));
+        final CompilationUnit unit = CompilationUnit.read(tables);
+        unit.setRpn(unit.getLexems());
+        Files.writeString(destination, interpret(unit));
     }
 
     public static void interpret(File tables, File destination) throws IOException {
@@ -49,334 +81,480 @@ public class Interpreter {
     }
 
     public List<Pair> calculate(List<Lexem> rpn) {
-        LinkedList<Lexem> symbols = new LinkedList<>(rpn);
-
-        final LinkedList<Lexem> lastValues = new LinkedList<>();
-
-        while (!symbols.isEmpty()) {
-            final Lexem symbol = symbols.pop();
-
-            if (isUnaryOperator(symbol.getName())) {
-                switch (symbol.getName()) {
-                    case "@":
-                        lastValues.push(handleUnaryMinus(lastValues.pop()));
-                        break;
-                    case "var":
-                    case "val":
-                        lastValues.push(handleDef(symbol.getName(), lastValues.pop()));
-                        break;
-                    case "goto":
-                        symbols = new LinkedList<>(handleGoto(lastValues.pop(), rpn));
-                        lastValues.clear();
-                        break;
-                    case ":":
-                        lastValues.pop();
-                        break;
-                    case "in":
-                        handleIn(lastValues.pop());
-                        break;
-                    case "out":
-                        handleOut(lastValues.pop());
-                        break;
-                }
-            } else if (isBinaryOperator(symbol.getName())) {
-                final Lexem last = lastValues.pop();
-                final Lexem preLast = lastValues.pop();
-
-                Lexem tempValue;
-                Pair.Type tempType;
-
-                switch (symbol.getName()) {
-                    case "==":
-                        tempValue = getConstant(preLast);
-                        tempType = constants.get(tempValue.getIndex()).getType();
-                        switch (tempType) {
-                            case NUMBER:
-                                lastValues.push(handleNumberBiFunc(preLast, last, Double::equals, Pair.Type.BOOLEAN));
-                                break;
-                            case STRING:
-                                lastValues.push(handleStringBiFunc(preLast, last, String::equals));
-                                break;
-                            case BOOLEAN:
-                                lastValues.push(handleBooleanBiFunc(preLast, last, Boolean::equals));
-                                break;
-                        }
-                        break;
-                    case "!=":
-                        tempValue = getConstant(preLast);
-                        tempType = constants.get(tempValue.getIndex()).getType();
-                        switch (tempType) {
-                            case NUMBER:
-                                lastValues.push(handleNumberBiFunc(preLast, last, (a, b) -> !a.equals(b), Pair.Type.BOOLEAN));
-                                break;
-                            case STRING:
-                                lastValues.push(handleStringBiFunc(preLast, last, (a, b) -> !a.equals(b)));
-                                break;
-                            case BOOLEAN:
-                                lastValues.push(handleBooleanBiFunc(preLast, last, (a, b) -> !a.equals(b)));
-                                break;
-                        }
-                        break;
-                    case ">=":
-                        lastValues.push(handleNumberBiFunc(preLast, last, (a, b) -> a >= b, Pair.Type.BOOLEAN));
-                        break;
-                    case "<=":
-                        lastValues.push(handleNumberBiFunc(preLast, last, (a, b) -> a <= b, Pair.Type.BOOLEAN));
-                        break;
-                    case ">":
-                        lastValues.push(handleNumberBiFunc(preLast, last, (a, b) -> a > b, Pair.Type.BOOLEAN));
-                        break;
-                    case "<":
-                        lastValues.push(handleNumberBiFunc(preLast, last, (a, b) -> a < b, Pair.Type.BOOLEAN));
-                        break;
-                    case "+":
-                        lastValues.push(handleNumberBiFunc(preLast, last, Double::sum, Pair.Type.NUMBER));
-                        break;
-                    case "-":
-                        lastValues.push(handleNumberBiFunc(preLast, last, (a, b) -> a - b, Pair.Type.NUMBER));
-                        break;
-                    case "*":
-                        lastValues.push(handleNumberBiFunc(preLast, last, (a, b) -> a * b, Pair.Type.NUMBER));
-                        break;
-                    case "/":
-                        lastValues.push(handleNumberBiFunc(preLast, last, (a, b) -> a / b, Pair.Type.NUMBER));
-                        break;
-                    case "^":
-                        lastValues.push(handleNumberBiFunc(preLast, last, Math::pow, Pair.Type.NUMBER));
-                        break;
-                    case "=":
-                        lastValues.push(handleAssign(preLast, last));
-                        break;
-                    case "if":
-                        symbols = new LinkedList<>(handleIf(preLast, last, rpn, symbols));
-                        lastValues.clear();
-                        break;
-                }
-            } else {
-                lastValues.push(symbol);
+        return calculate(Bytecode.compile(rpn));
+    }
+
+    public List<Pair> calculate(TokenStream rpn) {
+        return calculate(Bytecode.compile(rpn));
+    }
+
+    private List<Pair> calculate(Bytecode bytecode) {
+        SemanticAnalyzer.annotate(bytecode, constants, identifiers);
+        return execute(bytecode);
+    }
+
+    public List<Pair> execute(Bytecode bytecode) {
+        decodeConstants();
+        variables = new Variables(identifiers);
+
+        try {
+            run(bytecode);
+        } finally {
+            variables.store(identifiers);
+            if (output != null) {
+                output.flush();
             }
         }
 
         return identifiers;
     }
 
-    private boolean isBinaryOperator(String symbol) {
-        return symbol.matches("[=+\\-*/^<>]|==|!=|<=|>=|if|for");
+    private void run(Bytecode bytecode) {
+        final int size = bytecode.size();
+        int pc = 0;
+        while (pc < size) {
+            final int current = pc++;
+
+            switch (bytecode.getOpcode(current)) {
+                case PUSH_CONSTANT:
+                    final int index = bytecode.getIndex(current);
+                    stack.push(constantTags[index], constantValues[index], constantTexts[index], bytecode.getRowNumber(current));
+                    break;
+                case PUSH_IDENTIFIER:
+                    stack.pushIdentifier(bytecode.getIndex(current), bytecode.getRowNumber(current));
+                    break;
+                case NEG:
+                    handleUnaryMinus();
+                    break;
+                case DEF_VAR:
+                    handleDef(true);
+                    break;
+                case DEF_VAL:
+                    handleDef(false);
+                    break;
+                case GOTO:
+                    pc = handleGoto(bytecode, current);
+                    stack.clear();
+                    break;
+                case IF:
+                    pc = handleIf(bytecode, current);
+                    stack.clear();
+                    break;
+                case IN:
+                    handleIn();
+                    break;
+                case OUT:
+                    handleOut();
+                    break;
+                case EQ:
+                    handleEquality(true);
+                    break;
+                case NE:
+                    handleEquality(false);
+                    break;
+                case GE:
+                    handleNumberPredicate((a, b) -> a >= b);
+                    break;
+                case LE:
+                    handleNumberPredicate((a, b) -> a <= b);
+                    break;
+                case GT:
+                    handleNumberPredicate((a, b) -> a > b);
+                    break;
+                case LT:
+                    handleNumberPredicate((a, b) -> a < b);
+                    break;
+                case ADD:
+                    handleNumberBiFunc(Double::sum);
+                    break;
+                case SUB:
+                    handleNumberBiFunc((a, b) -> a - b);
+                    break;
+                case MUL:
+                    handleNumberBiFunc((a, b) -> a * b);
+                    break;
+                case DIV:
+                    handleNumberBiFunc((a, b) -> a / b);
+                    break;
+                case POW:
+                    handleNumberBiFunc(Math::pow);
+                    break;
+                case ASSIGN:
+                    handleAssign();
+                    break;
+                default:
+                    pc = executeTyped(bytecode.getOpcode(current), bytecode, pc);
+            }
+        }
+    }
+
+    private int executeTyped(Opcode opcode, Bytecode bytecode, int nextPc) {
+        final int last = stack.top();
+
+        switch (opcode) {
+            case NEG_NUM:
+                loadValue(last);
+                stack.set(last, ValueStack.NUMBER, Double.doubleToRawLongBits(-stack.number(last)), null);
+                return nextPc;
+            case IF_BOOL:
+                loadValue(last);
+                final boolean condition = stack.bool(last);
+                stack.clear();
+                return condition ? nextPc : checkTarget(bytecode, nextPc - 1);
+            case ASSIGN_NUM:
+                handleTypedAssign(ValueStack.NUMBER);
+                return nextPc;
+            case ASSIGN_BOOL:
+                handleTypedAssign(ValueStack.BOOLEAN);
+                return nextPc;
+            case ASSIGN_STR:
+                handleTypedAssign(ValueStack.STRING);
+                return nextPc;
+        }
+
+        final int preLast = last - 1;
+        loadValue(preLast);
+        loadValue(last);
+
+        switch (opcode) {
+            case ADD_NUM:
+                setNumber(preLast, stack.number(preLast) + stack.number(last));
+                break;
+            case SUB_NUM:
+                setNumber(preLast, stack.number(preLast) - stack.number(last));
+                break;
+            case MUL_NUM:
+                setNumber(preLast, stack.number(preLast) * stack.number(last));
+                break;
+            case DIV_NUM:
+                setNumber(preLast, stack.number(preLast) / stack.number(last));
+                break;
+            case POW_NUM:
+                setNumber(preLast, Math.pow(stack.number(preLast), stack.number(last)));
+                break;
+            case LT_NUM:
+                setBoolean(preLast, stack.number(preLast) < stack.number(last));
+                break;
+            case LE_NUM:
+                setBoolean(preLast, stack.number(preLast) <= stack.number(last));
+                break;
+            case GT_NUM:
+                setBoolean(preLast, stack.number(preLast) > stack.number(last));
+                break;
+            case GE_NUM:
+                setBoolean(preLast, stack.number(preLast) >= stack.number(last));
+                break;
+            case EQ_NUM:
+                setBoolean(preLast, Double.doubleToLongBits(stack.number(preLast)) == Double.doubleToLongBits(stack.number(last)));
+                break;
+            case NE_NUM:
+                setBoolean(preLast, Double.doubleToLongBits(stack.number(preLast)) != Double.doubleToLongBits(stack.number(last)));
+                break;
+            case EQ_BOOL:
+                setBoolean(preLast, stack.value(preLast) == stack.value(last));
+                break;
+            case NE_BOOL:
+                setBoolean(preLast, stack.value(preLast) != stack.value(last));
+                break;
+            case EQ_STR:
+                setBoolean(preLast, stack.text(preLast).equals(stack.text(last)));
+                break;
+            case NE_STR:
+                setBoolean(preLast, !stack.text(preLast).equals(stack.text(last)));
+                break;
+        }
+
+        stack.pop();
+        return nextPc;
+    }
+
+    private void setNumber(int slot, double value) {
+        stack.set(slot, ValueStack.NUMBER, Double.doubleToRawLongBits(value), null);
     }
 
-    private boolean isUnaryOperator(String symbol) {
-        return symbol.matches("[@:]|var|val|goto|in|out");
+    private void setBoolean(int slot, boolean value) {
+        stack.set(slot, ValueStack.BOOLEAN, value ? 1 : 0, null);
     }
 
-    private Lexem getConstant(Lexem lexem) {
-        if (lexem.getToken() == Token.CONSTANT) {
-            return lexem;
+    private void decodeConstants() {
+        final int size = constants.size();
+        constantTags = new byte[size];
+        constantValues = new long[size];
+        constantTexts = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            final Pair constant = constants.get(i);
+            constantTags[i] = Variables.tagOf(constant.getType());
+            constantValues[i] = Variables.decodeValue(constant.getType(), constant.getValue());
+            constantTexts[i] = Variables.decodeText(constant.getType(), constant.getValue());
         }
+    }
 
-        final Pair identifier = identifiers.get(lexem.getIndex());
+    private void load(int slot) {
+        if (stack.tag(slot) != ValueStack.IDENTIFIER) {
+            return;
+        }
+
+        final int index = (int) stack.value(slot);
+        final Pair.Type type = variables.type(index);
 
-        if (identifier.getType() == Pair.Type.UNDEF) {
-            throw new RuntimeException(lexem.getRowNumber() + ": Identifier is not defined.");
+        if (type == Pair.Type.UNDEF) {
+            throw new RuntimeException(stack.row(slot) + ": Identifier is not defined.");
         }
-        if (identifier.getType() == Pair.Type.MARK) {
-            throw new RuntimeException(lexem.getRowNumber() + ": Can not get value of mark.");
+        if (type == Pair.Type.MARK) {
+            throw new RuntimeException(stack.row(slot) + ": Can not get value of mark.");
         }
-        if (identifier.getValue().equals(Pair.UNDEF)) {
-            throw new RuntimeException(lexem.getRowNumber() + ": Identifier is not initialized.");
+        if (variables.state(index) != Variables.ASSIGNED) {
+            throw new RuntimeException(stack.row(slot) + ": Identifier is not initialized.");
         }
 
-        return createConstantIfNeeds(identifier.getValue(), identifier.getType());
+        stack.set(slot, variables.tag(index), variables.value(index), variables.text(index));
     }
 
-    private Lexem createConstantIfNeeds(String value, Pair.Type type) {
-        final Lexem constant = new Lexem();
-        constant.setToken(Token.CONSTANT);
-        constant.setName(value);
+    private void loadValue(int slot) {
+        if (stack.tag(slot) != ValueStack.IDENTIFIER) {
+            return;
+        }
 
-        final int index = checkConstants(value);
-        if (index > -1) {
-            constant.setIndex(index);
-        } else {
-            constants.add(new Pair(value, type, value, false, constants.size()));
-            constant.setIndex(constants.size() - 1);
+        final int index = (int) stack.value(slot);
+        if (variables.state(index) != Variables.ASSIGNED) {
+            throw new RuntimeException(stack.row(slot) + ": Identifier is not initialized.");
         }
 
-        return constant;
+        stack.set(slot, variables.tag(index), variables.value(index), variables.text(index));
     }
 
-    private int checkConstants(String value) {
-        return constants.stream().map(Pair::getValue).collect(Collectors.toList()).indexOf(value);
-    }
+    private void handleUnaryMinus() {
+        final int slot = stack.top();
+        load(slot);
+
+        if (stack.tag(slot) != ValueStack.NUMBER) {
+            throw new RuntimeException(stack.row(slot) + ": Required type 'number'.");
+        }
 
-    private Lexem handleUnaryMinus(Lexem lastValue) {
-        final Lexem constant = getConstant(lastValue);
-        final double value = Double.valueOf(constant.getName());
-        constant.setName(value < 0 ? String.valueOf(Math.abs(value)) : ("-" + value));
-        return constant;
+        stack.set(slot, ValueStack.NUMBER, Double.doubleToRawLongBits(-stack.number(slot)), null);
     }
 
-    private Lexem handleDef(String defType, Lexem lexem) {
-        final Pair identifier = identifiers.get(lexem.getIndex());
+    private void handleDef(boolean modifiable) {
+        final int slot = stack.top();
+        final int index = (int) stack.value(slot);
 
-        if (identifier.getType() == Pair.Type.MARK) {
-            throw new RuntimeException(lexem.getRowNumber() + ": Already exists mark with this name.");
+        if (variables.type(index) == Pair.Type.MARK) {
+            throw new RuntimeException(stack.row(slot) + ": Already exists mark with this name.");
         }
-        if (!identifier.getValue().equals(Pair.UNDEF)) {
-            throw new RuntimeException(lexem.getRowNumber() + ": Identifier already defined.");
+        if (variables.state(index) != Variables.UNDEFINED) {
+            throw new RuntimeException(stack.row(slot) + ": Identifier already defined.");
         }
 
-        identifier.setValue(Pair.DEF);
+        variables.define(index);
 
-        if (defType.equals("var")) {
-            identifier.setModifiable(true);
+        if (modifiable) {
+            variables.setModifiable(index);
         }
-
-        return lexem;
     }
 
-    private Lexem handleAssign(Lexem preLast, Lexem last) {
-        final Pair identifier = identifiers.get(preLast.getIndex());
+    private void handleAssign() {
+        final int last = stack.top();
+        final int preLast = last - 1;
+        final int index = (int) stack.value(preLast);
 
-        if (identifier.getValue().equals(Pair.UNDEF)) {
-            throw new RuntimeException(preLast.getRowNumber() + ": Identifier is not defined.");
+        if (variables.state(index) == Variables.UNDEFINED) {
+            throw new RuntimeException(stack.row(preLast) + ": Identifier is not defined.");
         }
-        if (!identifier.getValue().equals(Pair.DEF) && !identifier.isModifiable()) {
-            throw new RuntimeException(preLast.getRowNumber() + ": Can not modify constant.");
+        if (variables.state(index) != Variables.DEFINED && !variables.isModifiable(index)) {
+            throw new RuntimeException(stack.row(preLast) + ": Can not modify constant.");
         }
 
-        final Lexem lastConstant = getConstant(last);
-        final Pair lastPair = constants.get(lastConstant.getIndex());
+        load(last);
 
-        if (identifier.getType() != lastPair.getType()) {
-            throw new RuntimeException(preLast.getRowNumber() + ": Can not assign type " + lastPair.getType() + " to type " + identifier.getType());
+        final Pair.Type type = Variables.typeOf(stack.tag(last));
+        if (variables.type(index) != type) {
+            throw new RuntimeException(stack.row(preLast) + ": Can not assign type " + type + " to type " + variables.type(index));
         }
 
-        identifier.setValue(lastConstant.getName());
-
-        return preLast;
+        variables.assign(index, stack.tag(last), stack.value(last), stack.text(last));
+        stack.pop();
     }
 
-    private Lexem handleNumberBiFunc(Lexem preLast, Lexem last, BiFunction<Double, Double, Object> function, Pair.Type returnValueType) {
-        final Lexem preLastConstant = getConstant(preLast);
-        final Lexem lastConstant = getConstant(last);
+    private void handleTypedAssign(byte tag) {
+        final int last = stack.top();
+        final int preLast = last - 1;
+        final int index = (int) stack.value(preLast);
 
-        final Pair.Type type1 = constants.get(preLastConstant.getIndex()).getType();
-        final Pair.Type type2 = constants.get(lastConstant.getIndex()).getType();
-
-        if (type1 != type2) {
-            throw new RuntimeException(preLast.getRowNumber() + ": Can not handle operation with different types.");
+        if (variables.state(index) == Variables.UNDEFINED) {
+            throw new RuntimeException(stack.row(preLast) + ": Identifier is not defined.");
         }
-
-        if (!type1.equals(Pair.Type.NUMBER)) {
-            throw new RuntimeException(preLast.getRowNumber() + ": Required type 'number'.");
+        if (variables.state(index) != Variables.DEFINED && !variables.isModifiable(index)) {
+            throw new RuntimeException(stack.row(preLast) + ": Can not modify constant.");
         }
 
-        final Object newValue = function.apply(Double.valueOf(preLastConstant.getName()), Double.valueOf(lastConstant.getName()));
+        loadValue(last);
 
-        return createConstantIfNeeds(String.valueOf(newValue), returnValueType);
+        variables.assign(index, tag, stack.value(last), stack.text(last));
+        stack.pop();
     }
 
-    private Lexem handleBooleanBiFunc(Lexem preLast, Lexem last, BiFunction<Boolean, Boolean, Boolean> function) {
-        final Lexem preLastConstant = getConstant(preLast);
-        final Lexem lastConstant = getConstant(last);
+    private int loadOperands(int last, byte requiredType, String requiredTypeName) {
+        final int preLast = last - 1;
+        load(preLast);
+        load(last);
 
-        final Pair.Type type1 = constants.get(preLastConstant.getIndex()).getType();
-        final Pair.Type type2 = constants.get(lastConstant.getIndex()).getType();
-
-        if (type1 != type2) {
-            throw new RuntimeException(preLast.getRowNumber() + ": Can not handle operation with different types.");
+        if (stack.tag(preLast) != stack.tag(last)) {
+            throw new RuntimeException(stack.row(preLast) + ": Can not handle operation with different types.");
         }
-
-        if (!type1.equals(Pair.Type.BOOLEAN)) {
-            throw new RuntimeException(preLast.getRowNumber() + ": Required type 'boolean'.");
+        if (requiredTypeName != null && stack.tag(preLast) != requiredType) {
+            throw new RuntimeException(stack.row(preLast) + ": Required type '" + requiredTypeName + "'.");
         }
 
-        final Boolean newValue = function.apply(Boolean.valueOf(preLastConstant.getName()), Boolean.valueOf(lastConstant.getName()));
+        return preLast;
+    }
+
+    private void handleNumberBiFunc(DoubleBinaryOperator function) {
+        final int last = stack.top();
+        final int preLast = loadOperands(last, ValueStack.NUMBER, "number");
+
+        final double newValue = function.applyAsDouble(stack.number(preLast), stack.number(last));
 
-        return createConstantIfNeeds(String.valueOf(newValue), Pair.Type.BOOLEAN);
+        stack.set(preLast, ValueStack.NUMBER, Double.doubleToRawLongBits(newValue), null);
+        stack.pop();
     }
 
-    private Lexem handleStringBiFunc(Lexem preLast, Lexem last, BiFunction<String, String, Boolean> function) {
-        final Lexem preLastConstant = getConstant(preLast);
-        final Lexem lastConstant = getConstant(last);
+    private void handleNumberPredicate(NumberPredicate predicate) {
+        final int last = stack.top();
+        final int preLast = loadOperands(last, ValueStack.NUMBER, "number");
 
-        final Pair.Type type1 = constants.get(preLastConstant.getIndex()).getType();
-        final Pair.Type type2 = constants.get(lastConstant.getIndex()).getType();
+        final boolean newValue = predicate.test(stack.number(preLast), stack.number(last));
 
-        if (type1 != type2) {
-            throw new RuntimeException(preLast.getRowNumber() + ": Can not handle operation with different types.");
-        }
+        stack.set(preLast, ValueStack.BOOLEAN, newValue ? 1 : 0, null);
+        stack.pop();
+    }
 
-        if (!type1.equals(Pair.Type.NUMBER)) {
-            throw new RuntimeException(preLast.getRowNumber() + ": Required type 'string'.");
-        }
+    private void handleEquality(boolean expected) {
+        final int last = stack.top();
+        final int preLast = loadOperands(last, (byte) -1, null);
 
-        final Boolean newValue = function.apply(preLastConstant.getName(), lastConstant.getName());
+        final boolean equals;
+        switch (stack.tag(preLast)) {
+            case ValueStack.NUMBER:
+                equals = Double.doubleToLongBits(stack.number(preLast)) == Double.doubleToLongBits(stack.number(last));
+                break;
+            case ValueStack.STRING:
+                equals = stack.text(preLast).equals(stack.text(last));
+                break;
+            default:
+                equals = stack.value(preLast) == stack.value(last);
+        }
 
-        return createConstantIfNeeds(String.valueOf(newValue), Pair.Type.BOOLEAN);
+        stack.set(preLast, ValueStack.BOOLEAN, equals == expected ? 1 : 0, null);
+        stack.pop();
     }
 
-    private List<Lexem> handleGoto(Lexem mark, List<Lexem> symbols) {
-        if (identifiers.size() > mark.getIndex() && identifiers.get(mark.getIndex()).getType() != Pair.Type.MARK) {
-            throw new RuntimeException(mark.getRowNumber() + ": Identifier is not a mark.");
+    private int handleGoto(Bytecode bytecode, int pc) {
+        final int mark = bytecode.getMarkIndex(pc);
+        if (identifiers.size() > mark && identifiers.get(mark).getType() != Pair.Type.MARK) {
+            throw new RuntimeException(bytecode.getMarkRowNumber(pc) + ": Identifier is not a mark.");
         }
 
-        return findLabelMarkAndReturnNextSymbols(mark, symbols);
+        return checkTarget(bytecode, pc);
     }
 
-    private List<Lexem> findLabelMarkAndReturnNextSymbols(Lexem mark, List<Lexem> symbols) {
-        for (int i = 0; i < symbols.size() - 1; i++) {
-            if (symbols.get(i).equals(mark) && symbols.get(i + 1).getName().equals(":")) {
-                return symbols.subList(i + 2, symbols.size());
-            }
+    private int checkTarget(Bytecode bytecode, int pc) {
+        if (bytecode.getTarget(pc) == Bytecode.NO_TARGET) {
+            throw new RuntimeException("Can not find mark " + bytecode.getMarkName(pc));
         }
 
-        throw new RuntimeException("Can not find mark " + mark.getName());
+        return bytecode.getTarget(pc);
     }
 
-    private List<Lexem> handleIf(Lexem condition, Lexem mark, List<Lexem> allSymbols, List<Lexem> currentSymbols) {
-        final Pair conditionPair = constants.get(getConstant(condition).getIndex());
+    private int handleIf(Bytecode bytecode, int pc) {
+        final int slot = stack.top();
+        load(slot);
 
-        if (conditionPair.getType() != Pair.Type.BOOLEAN) {
-            throw new RuntimeException(condition.getRowNumber() + ": Required type 'boolean' in codition.");
+        if (stack.tag(slot) != ValueStack.BOOLEAN) {
+            throw new RuntimeException(stack.row(slot) + ": Required type 'boolean' in codition.");
         }
 
-        if (Boolean.parseBoolean(conditionPair.getValue())) {
-            return currentSymbols;
+        if (stack.bool(slot)) {
+            return pc + 1;
         }
 
-        return findLabelMarkAndReturnNextSymbols(mark, allSymbols);
+        return checkTarget(bytecode, pc);
     }
 
-    private void handleIn(Lexem last) {
-        final Pair identifier = identifiers.get(last.getIndex());
+    private void handleIn() {
+        final int slot = stack.top();
+        final int index = (int) stack.value(slot);
 
-        if (!identifier.getValue().equals(Pair.DEF) && !identifier.isModifiable()) {
-            throw new RuntimeException(last.getRowNumber() + ": Can not modify constant.");
+        if (variables.state(index) != Variables.DEFINED && !variables.isModifiable(index)) {
+            throw new RuntimeException(stack.row(slot) + ": Can not modify constant.");
         }
 
-        final Scanner scanner = new Scanner(System.in);
-
-        switch (identifier.getType()) {
+        switch (variables.type(index)) {
             case STRING:
-                identifier.setValue(String.format("'%s'", scanner.nextLine()));
+                variables.assign(index, ValueStack.STRING, 0, input().readLine());
                 break;
             case BOOLEAN:
-                identifier.setValue(String.valueOf(scanner.nextBoolean()));
+                variables.assign(index, ValueStack.BOOLEAN, input().readBoolean() ? 1 : 0, null);
                 break;
             case NUMBER:
-                identifier.setValue(String.valueOf(scanner.nextInt()));
+                final int number = input().readNumber();
+                variables.assign(index, ValueStack.NUMBER, Double.doubleToRawLongBits(number), String.valueOf(number));
                 break;
         }
+
+        stack.pop();
+    }
+
+    private void handleOut() {
+        final int slot = stack.top();
+        load(slot);
+
+        final String valueForOut = stack.tag(slot) == ValueStack.STRING
+                ? stack.text(slot)
+                : Variables.encode(stack.tag(slot), stack.value(slot), stack.text(slot));
+        output().println(valueForOut);
+
+        stack.pop();
+    }
+
+    private ProgramInput input() {
+        if (input == null) {
+            setInput(new ProgramInput(System.in));
+        }
+        return input;
     }
 
-    private void handleOut(Lexem last) {
-        final Pair constant = constants.get(getConstant(last).getIndex());
+    private ProgramOutput output() {
+        if (output == null) {
+            setOutput(new ProgramOutput(System.out));
+        }
+        return output;
+    }
+
+    public ProgramInput getInput() {
+        return input();
+    }
+    public void setInput(ProgramInput input) {
+        this.input = input;
+        if (output != null) {
+            input.tie(output);
+        }
+    }
+    public ProgramOutput getOutput() {
+        return output();
+    }
+    public void setOutput(ProgramOutput output) {
+        if (this.output != null) {
+            this.output.flush();
+        }
+        this.output = output;
+        if (input != null) {
+            input.tie(output);
+        }
+    }
 
-        final String valueForOut = constant.getType() == Pair.Type.STRING
-                ? constant.getValue().substring(1, constant.getValue().length() - 1)
-                : constant.getValue();
-        System.out.println(valueForOut);
+    private interface NumberPredicate {
+        boolean test(double a, double b);
     }
 
 }
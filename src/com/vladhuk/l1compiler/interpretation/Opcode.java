@@ -0,0 +1,72 @@
+package com.vladhuk.l1compiler.interpretation;
+
+import com.vladhuk.l1compiler.lexical.Token;
+
+public enum Opcode {
+    PUSH_CONSTANT,
+    PUSH_IDENTIFIER,
+    NEG,
+    DEF_VAR,
+    DEF_VAL,
+    GOTO,
+    IF,
+    IN,
+    OUT,
+    EQ,
+    NE,
+    LT,
+    LE,
+    GT,
+    GE,
+    ADD,
+    SUB,
+    MUL,
+    DIV,
+    POW,
+    ASSIGN,
+    NEG_NUM,
+    ADD_NUM,
+    SUB_NUM,
+    MUL_NUM,
+    DIV_NUM,
+    POW_NUM,
+    LT_NUM,
+    LE_NUM,
+    GT_NUM,
+    GE_NUM,
+    EQ_NUM,
+    NE_NUM,
+    EQ_BOOL,
+    NE_BOOL,
+    EQ_STR,
+    NE_STR,
+    ASSIGN_NUM,
+    ASSIGN_BOOL,
+    ASSIGN_STR,
+    IF_BOOL;
+
+    public static Opcode of(Token token, String name) {
+        switch (name) {
+            case "@": return NEG;
+            case "var": return DEF_VAR;
+            case "val": return DEF_VAL;
+            case "goto": return GOTO;
+            case "if": return IF;
+            case "in": return IN;
+            case "out": return OUT;
+            case "==": return EQ;
+            case "!=": return NE;
+            case "<": return LT;
+            case "<=": return LE;
+            case ">": return GT;
+            case ">=": return GE;
+            case "+": return ADD;
+            case "-": return SUB;
+            case "*": return MUL;
+            case "/": return DIV;
+            case "^": return POW;
+            case "=": return ASSIGN;
+            default: return token == Token.CONSTANT ? PUSH_CONSTANT : PUSH_IDENTIFIER;
+        }
+    }
+}
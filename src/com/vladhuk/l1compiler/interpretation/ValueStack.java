@@ -0,0 +1,81 @@
+package com.vladhuk.l1compiler.interpretation;
+
+import java.util.Arrays;
+
+
+public class ValueStack {
+
+    public static final byte NUMBER = 0;
+    public static final byte BOOLEAN = 1;
+    public static final byte STRING = 2;
+    public static final byte IDENTIFIER = 3;
+
+    private byte[] tags = new byte[16];
+    private long[] values = new long[16];
+    private String[] texts = new String[16];
+    private int[] rows = new int[16];
+    private int size;
+
+    public void pushIdentifier(int index, int row) {
+        push(IDENTIFIER, index, null, row);
+    }
+
+    public void push(byte tag, long value, String text, int row) {
+        if (size == tags.length) {
+            final int capacity = size * 2;
+            tags = Arrays.copyOf(tags, capacity);
+            values = Arrays.copyOf(values, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+        }
+        tags[size] = tag;
+        values[size] = value;
+        texts[size] = text;
+        rows[size] = row;
+        size++;
+    }
+
+    public void pop() {
+        texts[--size] = null;
+    }
+
+    public void clear() {
+        Arrays.fill(texts, 0, size, null);
+        size = 0;
+    }
+
+    public int top() {
+        return size - 1;
+    }
+
+    public byte tag(int slot) {
+        return tags[slot];
+    }
+
+    public long value(int slot) {
+        return values[slot];
+    }
+
+    public double number(int slot) {
+        return Double.longBitsToDouble(values[slot]);
+    }
+
+    public boolean bool(int slot) {
+        return values[slot] != 0;
+    }
+
+    public String text(int slot) {
+        return texts[slot];
+    }
+
+    public int row(int slot) {
+        return rows[slot];
+    }
+
+    public void set(int slot, byte tag, long value, String text) {
+        tags[slot] = tag;
+        values[slot] = value;
+        texts[slot] = text;
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.vladhuk.l1compiler.interpretation;
+
+import com.vladhuk.l1compiler.lexical.Pair;
+
+import java.util.List;
+
+
+public class Variables {
+
+    public static final byte UNDEFINED = 0;
+    public static final byte DEFINED = 1;
+    public static final byte ASSIGNED = 2;
+
+    private final Pair.Type[] types;
+    private final byte[] states;
+    private final boolean[] modifiable;
+    private final byte[] tags;
+    private final long[] values;
+    private final String[] texts;
+
+    public Variables(List<Pair> identifiers) {
+        final int size = identifiers.size();
+        types = new Pair.Type[size];
+        states = new byte[size];
+        modifiable = new boolean[size];
+        tags = new byte[size];
+        values = new long[size];
+        texts = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            final Pair identifier = identifiers.get(i);
+            types[i] = identifier.getType();
+            modifiable[i] = identifier.isModifiable();
+
+            if (identifier.getValue().equals(Pair.UNDEF)) {
+                states[i] = UNDEFINED;
+            } else if (identifier.getValue().equals(Pair.DEF)) {
+                states[i] = DEFINED;
+            } else {
+                states[i] = ASSIGNED;
+                decode(i, identifier.getType(), identifier.getValue());
+            }
+        }
+    }
+
+    public static byte tagOf(Pair.Type type) {
+        switch (type) {
+            case BOOLEAN: return ValueStack.BOOLEAN;
+            case STRING: return ValueStack.STRING;
+            default: return ValueStack.NUMBER;
+        }
+    }
+
+    public static long decodeValue(Pair.Type type, String value) {
+        switch (type) {
+            case BOOLEAN: return Boolean.parseBoolean(value) ? 1 : 0;
+            case STRING: return 0;
+            default: return Double.doubleToRawLongBits(Double.parseDouble(value));
+        }
+    }
+
+    public static String decodeText(Pair.Type type, String value) {
+        switch (type) {
+            case BOOLEAN: return null;
+            case STRING: return value.substring(1, value.length() - 1);
+            default: return value;
+        }
+    }
+
+    public static Pair.Type typeOf(byte tag) {
+        switch (tag) {
+            case ValueStack.BOOLEAN: return Pair.Type.BOOLEAN;
+            case ValueStack.STRING: return Pair.Type.STRING;
+            default: return Pair.Type.NUMBER;
+        }
+    }
+
+    public static String encode(byte tag, long value, String text) {
+        switch (tag) {
+            case ValueStack.BOOLEAN: return String.valueOf(value != 0);
+            case ValueStack.STRING: return "'" + text + "'";
+            default: return text != null ? text : String.valueOf(Double.longBitsToDouble(value));
+        }
+    }
+
+    private void decode(int index, Pair.Type type, String value) {
+        tags[index] = tagOf(type);
+        values[index] = decodeValue(type, value);
+        texts[index] = decodeText(type, value);
+    }
+
+    public void store(List<Pair> identifiers) {
+        for (int i = 0; i < states.length; i++) {
+            final Pair identifier = identifiers.get(i);
+            identifier.setModifiable(modifiable[i]);
+
+            if (states[i] == UNDEFINED) {
+                identifier.setValue(Pair.UNDEF);
+            } else if (states[i] == DEFINED) {
+                identifier.setValue(Pair.DEF);
+            } else {
+                identifier.setValue(encode(tags[i], values[i], texts[i]));
+            }
+        }
+    }
+
+    public Pair.Type type(int index) {
+        return types[index];
+    }
+
+    public byte state(int index) {
+        return states[index];
+    }
+
+    public boolean isModifiable(int index) {
+        return modifiable[index];
+    }
+
+    public void define(int index) {
+        states[index] = DEFINED;
+    }
+
+    public void setModifiable(int index) {
+        modifiable[index] = true;
+    }
+
+    public void assign(int index, byte tag, long value, String text) {
+        states[index] = ASSIGNED;
+        tags[index] = tag;
+        values[index] = value;
+        texts[index] = text;
+    }
+
+    public byte tag(int index) {
+        return tags[index];
+    }
+
+    public long value(int index) {
+        return values[index];
+    }
+
+    public String text(int index) {
+        return texts[index];
+    }
+
+}
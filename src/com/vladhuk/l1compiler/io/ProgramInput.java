@@ -0,0 +1,211 @@
+package com.vladhuk.l1compiler.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+
+public class ProgramInput implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final Charset charset;
+    private final ByteBuffer buffer;
+    private byte[] token = new byte[64];
+    private int tokenLength;
+    private boolean endOfInput;
+    private ProgramOutput tiedOutput;
+
+    public ProgramInput(InputStream in) {
+        this(Channels.newChannel(in));
+    }
+
+    public ProgramInput(ReadableByteChannel channel) {
+        this(channel, Charset.defaultCharset());
+    }
+
+    public ProgramInput(ReadableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.charset = charset;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    public static ProgramInput open(Path path) throws IOException {
+        return new ProgramInput(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    public void tie(ProgramOutput output) {
+        this.tiedOutput = output;
+    }
+
+    public int readNumber() {
+        readToken();
+
+        int i = 0;
+        final boolean negative = token[0] == '-';
+        if (token[0] == '-' || token[0] == '+') {
+            i++;
+        }
+        if (i == tokenLength) {
+            throw mismatch("number");
+        }
+
+        long number = 0;
+        for (; i < tokenLength; i++) {
+            final int digit = token[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw mismatch("number");
+            }
+            number = number * 10 + digit;
+            if (number > (long) Integer.MAX_VALUE + 1) {
+                throw mismatch("number");
+            }
+        }
+
+        if (negative) {
+            number = -number;
+        }
+        if (number > Integer.MAX_VALUE) {
+            throw mismatch("number");
+        }
+
+        return (int) number;
+    }
+
+    public boolean readBoolean() {
+        readToken();
+
+        if (tokenEqualsIgnoreCase("true")) {
+            return true;
+        }
+        if (tokenEqualsIgnoreCase("false")) {
+            return false;
+        }
+
+        throw mismatch("boolean");
+    }
+
+    public String readLine() {
+        tokenLength = 0;
+
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                if (tokenLength == 0) {
+                    throw new NoSuchElementException("Unexpected end of input.");
+                }
+                return new String(token, 0, tokenLength, charset);
+            }
+
+            final byte b = buffer.get();
+            if (b == '\n') {
+                return new String(token, 0, tokenLength, charset);
+            }
+            if (b == '\r') {
+                if (buffer.hasRemaining() || fill()) {
+                    if (buffer.get(buffer.position()) == '\n') {
+                        buffer.get();
+                    }
+                }
+                return new String(token, 0, tokenLength, charset);
+            }
+            append(b);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readToken() {
+        tokenLength = 0;
+
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                throw new NoSuchElementException("Unexpected end of input.");
+            }
+            if (!isWhitespace(buffer.get(buffer.position()))) {
+                break;
+            }
+            buffer.get();
+        }
+
+        while (buffer.hasRemaining() || fill()) {
+            final byte b = buffer.get(buffer.position());
+            if (isWhitespace(b)) {
+                break;
+            }
+            append(b);
+            buffer.get();
+        }
+    }
+
+    private boolean fill() {
+        if (endOfInput) {
+            return false;
+        }
+        if (tiedOutput != null) {
+            tiedOutput.flush();
+        }
+
+        buffer.clear();
+        try {
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+
+            if (read == -1) {
+                endOfInput = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.flip();
+        }
+
+        return buffer.hasRemaining();
+    }
+
+    private void append(byte b) {
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, tokenLength * 2);
+        }
+        token[tokenLength++] = b;
+    }
+
+    private boolean tokenEqualsIgnoreCase(String expected) {
+        if (tokenLength != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++) {
+            if (Character.toLowerCase((char) token[i]) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private InputMismatchException mismatch(String type) {
+        return new InputMismatchException("Expected " + type + " in input, but found '"
+                + new String(token, 0, tokenLength, charset) + "'.");
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b >= '\t' && b <= '\r' || b >= 0x1C && b <= 0x1F;
+    }
+
+}
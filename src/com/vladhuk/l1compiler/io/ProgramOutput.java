@@ -0,0 +1,118 @@
+package com.vladhuk.l1compiler.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+public class ProgramOutput implements Flushable, Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final Flushable target;
+    private final Charset charset;
+    private final ByteBuffer buffer;
+    private final byte[] lineSeparator;
+
+    public ProgramOutput(OutputStream out) {
+        this(Channels.newChannel(out), out, Charset.defaultCharset());
+    }
+
+    public ProgramOutput(WritableByteChannel channel) {
+        this(channel, null, Charset.defaultCharset());
+    }
+
+    public ProgramOutput(WritableByteChannel channel, Charset charset) {
+        this(channel, null, charset);
+    }
+
+    private ProgramOutput(WritableByteChannel channel, Flushable target, Charset charset) {
+        this.channel = channel;
+        this.target = target;
+        this.charset = charset;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.lineSeparator = System.lineSeparator().getBytes(charset);
+    }
+
+    public static ProgramOutput create(Path path) throws IOException {
+        return new ProgramOutput(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    public void println(String value) {
+        if (value == null) {
+            value = "null";
+        }
+
+        if (value.length() + lineSeparator.length <= buffer.remaining() && isAscii(value)) {
+            for (int i = 0; i < value.length(); i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+        } else {
+            write(value.getBytes(charset));
+        }
+        write(lineSeparator);
+    }
+
+    @Override
+    public void flush() {
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+
+            if (target != null) {
+                target.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private void write(byte[] bytes) {
+        if (bytes.length > buffer.remaining()) {
+            flush();
+        }
+
+        if (bytes.length > buffer.remaining()) {
+            try {
+                final ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            buffer.put(bytes);
+        }
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.vladhuk.l1compiler.jit;
+
+public class CompilationException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CompilationException(String message) {
+        super(message);
+    }
+
+    public CompilationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.vladhuk.l1compiler.jit;
+
+import com.vladhuk.l1compiler.interpretation.Variables;
+
+
+public interface CompiledProgram {
+    void run(Variables variables, JitRuntime runtime);
+}
@@ -0,0 +1,89 @@
+package com.vladhuk.l1compiler.jit;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+public class JavaSourceCompiler {
+
+    public static Map<String, byte[]> compile(String className, String source) {
+        final JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            throw new CompilationException("System Java compiler is not available");
+        }
+
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final ClassFileManager fileManager = new ClassFileManager(javac.getStandardFileManager(diagnostics, null, null));
+
+        final List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                "-proc:none", "-g:none", "-nowarn");
+        final JavaFileObject unit = new SourceFile(className, source);
+
+        if (!javac.getTask(null, fileManager, diagnostics, options, null, List.of(unit)).call()) {
+            final StringBuilder message = new StringBuilder("Can not compile L1 program to JVM bytecode");
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                message.append(System.lineSeparator()).append(diagnostic.getMessage(null));
+            }
+            throw new CompilationException(message.toString());
+        }
+
+        final Map<String, byte[]> classFiles = new LinkedHashMap<>();
+        fileManager.classFiles.forEach((name, bytes) -> classFiles.put(name, bytes.toByteArray()));
+        return classFiles;
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        private SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+
+    }
+
+    private static class ClassFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+        private final Map<String, ByteArrayOutputStream> classFiles = new LinkedHashMap<>();
+
+        private ClassFileManager(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            final ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+            classFiles.put(className, classFile);
+
+            return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return classFile;
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.vladhuk.l1compiler.jit;
+
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.interpretation.Interpreter;
+import com.vladhuk.l1compiler.interpretation.Variables;
+import com.vladhuk.l1compiler.io.ProgramInput;
+import com.vladhuk.l1compiler.io.ProgramOutput;
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+import com.vladhuk.l1compiler.optimization.LoopInvariantHoister;
+import com.vladhuk.l1compiler.util.Util;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.BitSet;
+import java.util.List;
+
+
+public class JitCompiler {
+
+    private static final String CLASS_NAME = JitCompiler.class.getPackageName() + ".L1Program";
+
+    public static String interpret(CompilationUnit unit) {
+        return interpret(unit, System.in, System.out, System.err);
+    }
+
+    public static String interpret(CompilationUnit unit, InputStream in, PrintStream out, PrintStream err) {
+        return interpret(unit, new ProgramInput(in), new ProgramOutput(out), err);
+    }
+
+    public static String interpret(CompilationUnit unit, ProgramInput in, ProgramOutput out, PrintStream err) {
+        final CompiledProgram program;
+        try {
+            program = compile(unit.getRpn(), unit.getConstants(), unit.getIdentifiers());
+        } catch (CompilationException e) {
+            return Interpreter.interpret(unit, in, out, err);
+        } catch (RuntimeException e) {
+            err.println(e.getMessage());
+            return "";
+        }
+
+        try {
+            return Util.tableToString(LoopInvariantHoister.withoutTemporaries(execute(program, unit.getIdentifiers(), in, out)));
+        } catch (RuntimeException e) {
+            err.println(e.getMessage());
+        }
+
+        return "";
+    }
+
+    public static List<Pair> execute(CompiledProgram program, List<Pair> identifiers, InputStream in, PrintStream out) {
+        return execute(program, identifiers, new ProgramInput(in), new ProgramOutput(out));
+    }
+
+    public static List<Pair> execute(CompiledProgram program, List<Pair> identifiers, ProgramInput in, ProgramOutput out) {
+        final Variables variables = new Variables(identifiers);
+        final JitRuntime runtime = new JitRuntime(in, out);
+
+        try {
+            program.run(variables, runtime);
+        } finally {
+            variables.store(identifiers);
+            runtime.flush();
+        }
+
+        return identifiers;
+    }
+
+    public static CompiledProgram compile(List<Lexem> rpn, SymbolTable constants, List<Pair> identifiers) {
+        final byte[] classFile = JavaSourceCompiler.compile(CLASS_NAME, translate(rpn, constants, identifiers)).get(CLASS_NAME);
+
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            return (CompiledProgram) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new CompilationException("Can not load compiled L1 program", e);
+        }
+    }
+
+    public static String translate(List<Lexem> rpn, SymbolTable constants, List<Pair> identifiers) {
+        final ProgramTranslator translator = ProgramTranslator.translate(rpn, constants, identifiers);
+        final BitSet used = translator.getUsedIdentifiers();
+
+        final StringBuilder source = new StringBuilder();
+        source.append("package ").append(JitCompiler.class.getPackageName()).append(";\n\n");
+        source.append("import com.vladhuk.l1compiler.interpretation.ValueStack;\n");
+        source.append("import com.vladhuk.l1compiler.interpretation.Variables;\n\n");
+        source.append("public final class ").append(CLASS_NAME.substring(CLASS_NAME.lastIndexOf('.') + 1))
+                .append(" implements CompiledProgram {\n\n");
+        source.append("    private JitRuntime runtime;\n");
+        translator.appendMembers(source);
+
+        source.append("\n    public void run(Variables variables, JitRuntime runtime) {\n");
+        source.append("        this.runtime = runtime;\n");
+        for (int index = used.nextSetBit(0); index >= 0; index = used.nextSetBit(index + 1)) {
+            appendLoad(source, identifiers.get(index).getType(), index);
+        }
+        source.append("        try {\n");
+        source.append("            execute();\n");
+        source.append("        } finally {\n");
+        for (int index = used.nextSetBit(0); index >= 0; index = used.nextSetBit(index + 1)) {
+            appendStore(source, identifiers.get(index).getType(), index);
+        }
+        source.append("        }\n");
+        source.append("    }\n\n");
+
+        source.append("    private static RuntimeException error(int row, String message) {\n");
+        source.append("        return JitRuntime.error(row, message);\n");
+        source.append("    }\n\n");
+        source.append("    private static String toText(double number, String text) {\n");
+        source.append("        return JitRuntime.toText(number, text);\n");
+        source.append("    }\n\n");
+        source.append("    private void print(String value) {\n");
+        source.append("        runtime.print(value);\n");
+        source.append("    }\n\n");
+        source.append("    private int readNumber() {\n");
+        source.append("        return runtime.readNumber();\n");
+        source.append("    }\n\n");
+        source.append("    private boolean readBoolean() {\n");
+        source.append("        return runtime.readBoolean();\n");
+        source.append("    }\n\n");
+        source.append("    private String readString() {\n");
+        source.append("        return runtime.readString();\n");
+        source.append("    }\n\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private static void appendLoad(StringBuilder source, Pair.Type type, int index) {
+        source.append("        s").append(index).append(" = variables.state(").append(index).append(");\n");
+        source.append("        m").append(index).append(" = variables.isModifiable(").append(index).append(");\n");
+
+        switch (type) {
+            case NUMBER:
+                source.append("        v").append(index).append(" = Double.longBitsToDouble(variables.value(").append(index).append("));\n");
+                source.append("        t").append(index).append(" = variables.text(").append(index).append(");\n");
+                break;
+            case BOOLEAN:
+                source.append("        v").append(index).append(" = variables.value(").append(index).append(") != 0;\n");
+                break;
+            case STRING:
+                source.append("        v").append(index).append(" = variables.text(").append(index).append(");\n");
+                break;
+        }
+    }
+
+    private static void appendStore(StringBuilder source, Pair.Type type, int index) {
+        final String assign;
+        switch (type) {
+            case NUMBER:
+                assign = "variables.assign(" + index + ", ValueStack.NUMBER, Double.doubleToRawLongBits(v" + index + "), t" + index + ");";
+                break;
+            case BOOLEAN:
+                assign = "variables.assign(" + index + ", ValueStack.BOOLEAN, v" + index + " ? 1 : 0, null);";
+                break;
+            case STRING:
+                assign = "variables.assign(" + index + ", ValueStack.STRING, 0, v" + index + ");";
+                break;
+            default:
+                assign = null;
+        }
+
+        if (assign != null) {
+            source.append("            if (s").append(index).append(" == ").append(Variables.ASSIGNED).append(") ")
+                    .append(assign).append('\n');
+        }
+        source.append("            if (s").append(index).append(" == ").append(Variables.DEFINED)
+                .append(") variables.define(").append(index).append(");\n");
+        source.append("            if (m").append(index).append(") variables.setModifiable(").append(index).append(");\n");
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.vladhuk.l1compiler.jit;
+
+import com.vladhuk.l1compiler.io.ProgramInput;
+import com.vladhuk.l1compiler.io.ProgramOutput;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+
+
+public class JitRuntime {
+
+    private final ProgramInput in;
+    private final ProgramOutput out;
+
+    public JitRuntime(InputStream in, PrintStream out) {
+        this(new ProgramInput(in), new ProgramOutput(out));
+    }
+
+    public JitRuntime(ProgramInput in, ProgramOutput out) {
+        this.in = in;
+        this.out = out;
+        in.tie(out);
+    }
+
+    public static RuntimeException error(int row, String message) {
+        return new RuntimeException(row + ": " + message);
+    }
+
+    public static String toText(double number, String text) {
+        return text != null ? text : String.valueOf(number);
+    }
+
+    public int readNumber() {
+        return in.readNumber();
+    }
+
+    public boolean readBoolean() {
+        return in.readBoolean();
+    }
+
+    public String readString() {
+        return in.readLine();
+    }
+
+    public void print(String value) {
+        out.println(value);
+    }
+
+    public void flush() {
+        out.flush();
+    }
+
+}
@@ -0,0 +1,592 @@
+package com.vladhuk.l1compiler.jit;
+
+import com.vladhuk.l1compiler.interpretation.Bytecode;
+import com.vladhuk.l1compiler.interpretation.Variables;
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+import com.vladhuk.l1compiler.lexical.Token;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeSet;
+
+
+public class ProgramTranslator {
+
+    private static final int CHUNK_STATEMENTS = 256;
+
+    private final SymbolTable constants;
+    private final List<Pair> identifiers;
+    private final Bytecode bytecode;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final List<Operand> stack = new ArrayList<>();
+    private final BitSet used = new BitSet();
+    private Chunk chunk;
+    private boolean dead;
+    private int locals;
+
+    private ProgramTranslator(Bytecode bytecode, SymbolTable constants, List<Pair> identifiers) {
+        this.bytecode = bytecode;
+        this.constants = constants;
+        this.identifiers = identifiers;
+    }
+
+    public static ProgramTranslator translate(List<Lexem> rpn, SymbolTable constants, List<Pair> identifiers) {
+        for (Pair constant : constants) {
+            Variables.decodeValue(constant.getType(), constant.getValue());
+            Variables.decodeText(constant.getType(), constant.getValue());
+        }
+
+        final ProgramTranslator translator = new ProgramTranslator(Bytecode.compile(rpn), constants, identifiers);
+        translator.translateBlocks();
+        return translator;
+    }
+
+    private void translateBlocks() {
+        final TreeSet<Integer> leaders = new TreeSet<>();
+        for (int pc = 0; pc < bytecode.size(); pc++) {
+            if (isJump(bytecode.getName(pc))) {
+                leaders.add(pc + 1);
+                if (bytecode.getTarget(pc) != Bytecode.NO_TARGET) {
+                    leaders.add(bytecode.getTarget(pc));
+                }
+            }
+        }
+
+        for (int pc = 0; pc < bytecode.size(); pc++) {
+            final boolean leader = leaders.contains(pc);
+
+            if (chunk == null || chunk.statements >= CHUNK_STATEMENTS && (leader || isStatementEnd(pc - 1))) {
+                if (chunk != null) {
+                    closeChunk(pc);
+                }
+                chunk = new Chunk(pc);
+                chunks.add(chunk);
+                openBlock(pc);
+            } else if (leader) {
+                chunk.body.append("                }\n");
+                openBlock(pc);
+            }
+
+            if (!dead) {
+                translate(pc);
+            }
+        }
+
+        if (chunk != null) {
+            closeChunk(bytecode.size());
+        }
+    }
+
+    private void openBlock(int pc) {
+        chunk.body.append("                case ").append(pc).append(": {\n");
+        stack.clear();
+        dead = false;
+    }
+
+    private void closeChunk(int next) {
+        if (!dead) {
+            emit("return " + next + ";");
+        }
+        chunk.body.append("                }\n");
+    }
+
+    private boolean isStatementEnd(int pc) {
+        final String name = bytecode.getName(pc);
+        return name.equals("=") || name.equals("in") || name.equals("out");
+    }
+
+    private void translate(int pc) {
+        final String name = bytecode.getName(pc);
+
+        switch (name) {
+            case "@":
+                translateUnaryMinus();
+                return;
+            case "var":
+            case "val":
+                translateDef(name);
+                return;
+            case "goto":
+                translateGoto(pc);
+                return;
+            case "if":
+                translateIf(pc);
+                return;
+            case "in":
+                translateIn();
+                return;
+            case "out":
+                translateOut();
+                return;
+            case "=":
+                translateAssign();
+                return;
+            case "==":
+            case "!=":
+            case ">=":
+            case "<=":
+            case ">":
+            case "<":
+            case "+":
+            case "-":
+            case "*":
+            case "/":
+            case "^":
+                translateBinaryOperator(name);
+                return;
+        }
+
+        final int index = bytecode.getIndex(pc);
+        final int row = bytecode.getRowNumber(pc);
+        if (bytecode.getToken(pc) == Token.CONSTANT) {
+            stack.add(constant(name, index, row));
+        } else {
+            if (index < 0 || index >= identifiers.size()) {
+                throw new CompilationException(row + ": Unknown identifier " + name);
+            }
+            stack.add(new Operand(index, null, null, null, row));
+        }
+    }
+
+    private Operand constant(String name, int index, int row) {
+        if (index < 0 || index >= constants.size()) {
+            throw new CompilationException(row + ": Unknown constant " + name);
+        }
+
+        final Pair constant = constants.get(index);
+        final Pair.Type type = Variables.typeOf(Variables.tagOf(constant.getType()));
+        final long value = Variables.decodeValue(constant.getType(), constant.getValue());
+        final String text = Variables.decodeText(constant.getType(), constant.getValue());
+
+        switch (type) {
+            case BOOLEAN:
+                return new Operand(-1, type, String.valueOf(value != 0), "null", row);
+            case STRING:
+                return new Operand(-1, type, quote(text), "null", row);
+            default:
+                return new Operand(-1, type, "Double.longBitsToDouble(0x" + Long.toHexString(value) + "L)",
+                        text == null ? "null" : quote(text), row);
+        }
+    }
+
+    private Operand load(Operand operand) {
+        if (operand.index < 0) {
+            return operand;
+        }
+
+        final int index = operand.index;
+        final Pair.Type type = identifiers.get(index).getType();
+        markUsed(index);
+
+        if (type == Pair.Type.UNDEF) {
+            fail(operand.row, "Identifier is not defined.");
+            return null;
+        }
+        if (type == Pair.Type.MARK) {
+            fail(operand.row, "Can not get value of mark.");
+            return null;
+        }
+
+        emit("if (s" + index + " != " + Variables.ASSIGNED + ") throw " + error(operand.row, "Identifier is not initialized.") + ";");
+        return new Operand(-1, type, "v" + index, type == Pair.Type.NUMBER ? "t" + index : "null", operand.row);
+    }
+
+    private void translateUnaryMinus() {
+        final Operand operand = pop();
+        final Operand value = load(operand);
+        if (value == null) {
+            return;
+        }
+        if (value.type != Pair.Type.NUMBER) {
+            fail(operand.row, "Required type 'number'.");
+            return;
+        }
+
+        stack.add(local(Pair.Type.NUMBER, "-" + value.value, operand.row));
+    }
+
+    private void translateDef(String defType) {
+        final Operand target = reference(peek());
+        final int index = target.index;
+
+        if (identifiers.get(index).getType() == Pair.Type.MARK) {
+            fail(target.row, "Already exists mark with this name.");
+            return;
+        }
+
+        emit("if (s" + index + " != " + Variables.UNDEFINED + ") throw " + error(target.row, "Identifier already defined.") + ";");
+        emit("s" + index + " = " + Variables.DEFINED + ";");
+        if (defType.equals("var")) {
+            emit("m" + index + " = true;");
+        }
+    }
+
+    private void translateAssign() {
+        final Operand operand = pop();
+        final Operand target = reference(pop());
+        final int index = target.index;
+
+        emit("if (s" + index + " == " + Variables.UNDEFINED + ") throw " + error(target.row, "Identifier is not defined.") + ";");
+        emit("if (s" + index + " != " + Variables.DEFINED + " && !m" + index + ") throw "
+                + error(target.row, "Can not modify constant.") + ";");
+
+        final Operand value = load(operand);
+        if (value == null) {
+            return;
+        }
+
+        final Pair.Type type = identifiers.get(index).getType();
+        if (type != value.type) {
+            fail(target.row, "Can not assign type " + value.type + " to type " + type);
+            return;
+        }
+
+        emit("v" + index + " = " + value.value + ";");
+        if (type == Pair.Type.NUMBER) {
+            emit("t" + index + " = " + value.text + ";");
+        }
+        emit("s" + index + " = " + Variables.ASSIGNED + ";");
+        stack.add(target);
+    }
+
+    private void translateBinaryOperator(String operator) {
+        final Operand rightOperand = pop();
+        final Operand leftOperand = pop();
+
+        final Operand left = load(leftOperand);
+        if (left == null) {
+            return;
+        }
+        final Operand right = load(rightOperand);
+        if (right == null) {
+            return;
+        }
+
+        if (left.type != right.type) {
+            fail(leftOperand.row, "Can not handle operation with different types.");
+            return;
+        }
+
+        final boolean equality = operator.equals("==") || operator.equals("!=");
+        if (!equality && left.type != Pair.Type.NUMBER) {
+            fail(leftOperand.row, "Required type 'number'.");
+            return;
+        }
+
+        final String a = left.value;
+        final String b = right.value;
+        switch (operator) {
+            case "==":
+            case "!=":
+                final String equals;
+                switch (left.type) {
+                    case NUMBER:
+                        equals = "Double.doubleToLongBits(" + a + ") == Double.doubleToLongBits(" + b + ")";
+                        break;
+                    case STRING:
+                        equals = a + ".equals(" + b + ")";
+                        break;
+                    default:
+                        equals = a + " == " + b;
+                }
+                stack.add(local(Pair.Type.BOOLEAN, operator.equals("==") ? equals : "!(" + equals + ")", leftOperand.row));
+                break;
+            case "^":
+                stack.add(local(Pair.Type.NUMBER, "Math.pow(" + a + ", " + b + ")", leftOperand.row));
+                break;
+            case "+":
+            case "-":
+            case "*":
+            case "/":
+                stack.add(local(Pair.Type.NUMBER, a + " " + operator + " " + b, leftOperand.row));
+                break;
+            default:
+                stack.add(local(Pair.Type.BOOLEAN, a + " " + operator + " " + b, leftOperand.row));
+        }
+    }
+
+    private void translateGoto(int pc) {
+        final int mark = bytecode.getMarkIndex(pc);
+        final int target = bytecode.getTarget(pc);
+        if (identifiers.size() > mark && identifiers.get(mark).getType() != Pair.Type.MARK) {
+            fail(bytecode.getMarkRowNumber(pc), "Identifier is not a mark.");
+            return;
+        }
+
+        if (target == Bytecode.NO_TARGET) {
+            emit("throw new RuntimeException(" + quote("Can not find mark " + bytecode.getMarkName(pc)) + ");");
+        } else {
+            emit("block = " + target + ";");
+            emit("continue dispatch;");
+        }
+        dead = true;
+    }
+
+    private void translateIf(int pc) {
+        final int target = bytecode.getTarget(pc);
+        final Operand operand = pop();
+        final Operand condition = load(operand);
+        if (condition == null) {
+            return;
+        }
+        if (condition.type != Pair.Type.BOOLEAN) {
+            fail(operand.row, "Required type 'boolean' in codition.");
+            return;
+        }
+
+        if (target == Bytecode.NO_TARGET) {
+            emit("if (!" + condition.value + ") throw new RuntimeException(" + quote("Can not find mark " + bytecode.getMarkName(pc)) + ");");
+        } else {
+            emit("if (!" + condition.value + ") {");
+            emit("    block = " + target + ";");
+            emit("    continue dispatch;");
+            emit("}");
+        }
+        stack.clear();
+    }
+
+    private void translateIn() {
+        final Operand target = reference(pop());
+        final int index = target.index;
+
+        emit("if (s" + index + " != " + Variables.DEFINED + " && !m" + index + ") throw "
+                + error(target.row, "Can not modify constant.") + ";");
+
+        switch (identifiers.get(index).getType()) {
+            case STRING:
+                emit("v" + index + " = readString();");
+                break;
+            case BOOLEAN:
+                emit("v" + index + " = readBoolean();");
+                break;
+            case NUMBER:
+                final String number = nextLocal();
+                emit("final int " + number + " = readNumber();");
+                emit("v" + index + " = " + number + ";");
+                emit("t" + index + " = String.valueOf(" + number + ");");
+                break;
+            default:
+                return;
+        }
+        emit("s" + index + " = " + Variables.ASSIGNED + ";");
+    }
+
+    private void translateOut() {
+        final Operand value = load(pop());
+        if (value == null) {
+            return;
+        }
+
+        switch (value.type) {
+            case STRING:
+                emit("print(" + value.value + ");");
+                break;
+            case BOOLEAN:
+                emit("print(String.valueOf(" + value.value + "));");
+                break;
+            default:
+                emit("print(toText(" + value.value + ", " + value.text + "));");
+        }
+    }
+
+    private Operand reference(Operand operand) {
+        if (operand.index < 0) {
+            throw new CompilationException(operand.row + ": Expected identifier");
+        }
+        markUsed(operand.index);
+        return operand;
+    }
+
+    private void markUsed(int index) {
+        used.set(index);
+        chunk.used.set(index);
+    }
+
+    private Operand local(Pair.Type type, String expression, int row) {
+        final String name = nextLocal();
+        emit("final " + javaType(type) + " " + name + " = " + expression + ";");
+        return new Operand(-1, type, name, "null", row);
+    }
+
+    private String nextLocal() {
+        return "r" + locals++;
+    }
+
+    private void fail(int row, String message) {
+        emit("throw " + error(row, message) + ";");
+        dead = true;
+    }
+
+    private static String error(int row, String message) {
+        return "error(" + row + ", " + quote(message) + ")";
+    }
+
+    private void emit(String statement) {
+        chunk.body.append("                    ").append(statement).append('\n');
+        chunk.statements++;
+    }
+
+    private Operand pop() {
+        if (stack.isEmpty()) {
+            throw new CompilationException("Operand stack underflow");
+        }
+        return stack.remove(stack.size() - 1);
+    }
+
+    private Operand peek() {
+        if (stack.isEmpty()) {
+            throw new CompilationException("Operand stack underflow");
+        }
+        return stack.get(stack.size() - 1);
+    }
+
+    public void appendMembers(StringBuilder source) {
+        for (int index = used.nextSetBit(0); index >= 0; index = used.nextSetBit(index + 1)) {
+            for (String[] field : fields(index)) {
+                source.append("    private ").append(field[0]).append(' ').append(field[1]).append(";\n");
+            }
+        }
+
+        source.append("\n    private void execute() {\n");
+        source.append("        int block = 0;\n");
+        source.append("        while (block != ").append(bytecode.size()).append(") {\n");
+        for (int i = 0; i < chunks.size(); i++) {
+            source.append("            ");
+            if (i + 1 < chunks.size()) {
+                source.append(i == 0 ? "" : "} else ").append("if (block < ").append(chunks.get(i + 1).first).append(") {\n");
+            } else if (i != 0) {
+                source.append("} else {\n");
+            } else {
+                source.append("{\n");
+            }
+            source.append("                block = chunk").append(i).append("(block);\n");
+        }
+        if (!chunks.isEmpty()) {
+            source.append("            }\n");
+        }
+        source.append("        }\n");
+        source.append("    }\n");
+
+        for (int i = 0; i < chunks.size(); i++) {
+            final Chunk chunk = chunks.get(i);
+
+            source.append("\n    private int chunk").append(i).append("(int block) {\n");
+            for (int index = chunk.used.nextSetBit(0); index >= 0; index = chunk.used.nextSetBit(index + 1)) {
+                for (String[] field : fields(index)) {
+                    source.append("        ").append(field[0]).append(' ').append(field[1])
+                            .append(" = this.").append(field[1]).append(";\n");
+                }
+            }
+            source.append("        try {\n");
+            source.append("            dispatch:\n");
+            source.append("            while (true) {\n");
+            source.append("                switch (block) {\n");
+            source.append(chunk.body);
+            source.append("                default:\n");
+            source.append("                    return block;\n");
+            source.append("                }\n");
+            source.append("            }\n");
+            source.append("        } finally {\n");
+            for (int index = chunk.used.nextSetBit(0); index >= 0; index = chunk.used.nextSetBit(index + 1)) {
+                for (String[] field : fields(index)) {
+                    source.append("            this.").append(field[1]).append(" = ").append(field[1]).append(";\n");
+                }
+            }
+            source.append("        }\n");
+            source.append("    }\n");
+        }
+    }
+
+    public BitSet getUsedIdentifiers() {
+        return (BitSet) used.clone();
+    }
+
+    public List<String[]> fields(int index) {
+        final List<String[]> fields = new ArrayList<>(4);
+        fields.add(new String[]{"byte", "s" + index});
+        fields.add(new String[]{"boolean", "m" + index});
+
+        switch (identifiers.get(index).getType()) {
+            case NUMBER:
+                fields.add(new String[]{"double", "v" + index});
+                fields.add(new String[]{"String", "t" + index});
+                break;
+            case BOOLEAN:
+                fields.add(new String[]{"boolean", "v" + index});
+                break;
+            case STRING:
+                fields.add(new String[]{"String", "v" + index});
+                break;
+        }
+        return fields;
+    }
+
+    private static String javaType(Pair.Type type) {
+        switch (type) {
+            case BOOLEAN: return "boolean";
+            case STRING: return "String";
+            default: return "double";
+        }
+    }
+
+    private static boolean isJump(String name) {
+        return name.equals("goto") || name.equals("if");
+    }
+
+    public static String quote(String text) {
+        final StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static class Operand {
+
+        private final int index;
+        private final Pair.Type type;
+        private final String value;
+        private final String text;
+        private final int row;
+
+        private Operand(int index, Pair.Type type, String value, String text, int row) {
+            this.index = index;
+            this.type = type;
+            this.value = value;
+            this.text = text;
+            this.row = row;
+        }
+
+    }
+
+    private static class Chunk {
+
+        private final int first;
+        private final StringBuilder body = new StringBuilder();
+        private final BitSet used = new BitSet();
+        private int statements;
+
+        private Chunk(int first) {
+            this.first = first;
+        }
+
+    }
+
+}
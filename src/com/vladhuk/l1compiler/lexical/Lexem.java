@@ -1,5 +1,7 @@
 package com.vladhuk.l1compiler.lexical;
 
+import com.vladhuk.l1compiler.util.Util;
+
 import java.util.Objects;
 
 
@@ -29,7 +31,17 @@ public class Lexem {
 
     @Override
     public String toString() {
-        return String.format("%-7d %-15s %-15s %s", rowNumber, name, token.name(), index == -1 ? "" : index);
+        return appendTo(new StringBuilder(48)).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder builder) {
+        Util.appendPadded(builder, rowNumber, 7).append(' ');
+        Util.appendPadded(builder, name, 15).append(' ');
+        Util.appendPadded(builder, token.name(), 15).append(' ');
+        if (index != -1) {
+            builder.append(index);
+        }
+        return builder;
     }
 
     @Override
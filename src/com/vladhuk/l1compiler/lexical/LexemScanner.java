@@ -0,0 +1,306 @@
+package com.vladhuk.l1compiler.lexical;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.vladhuk.l1compiler.lexical.Token.*;
+
+
+public class LexemScanner {
+
+    private static final byte OTHER = 0;
+    private static final byte SPACE = 1;
+    private static final byte NEW_LINE = 2;
+    private static final byte LETTER = 3;
+    private static final byte DIGIT = 4;
+    private static final byte UNDERSCORE = 5;
+    private static final byte QUOTE = 6;
+    private static final byte OPERATOR = 7;
+
+    private static final byte[] CHAR_CLASSES = new byte[128];
+    private static final Token[] OPERATOR_TOKENS = new Token[128];
+    private static final Map<String, Token> KEYWORDS = new HashMap<>();
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_CLASSES[c] = LETTER;
+            CHAR_CLASSES[Character.toUpperCase(c)] = LETTER;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASSES[c] = DIGIT;
+        }
+        for (char c : " \t\r\f\u000B".toCharArray()) {
+            CHAR_CLASSES[c] = SPACE;
+        }
+        CHAR_CLASSES['\n'] = NEW_LINE;
+        CHAR_CLASSES['_'] = UNDERSCORE;
+        CHAR_CLASSES['\''] = QUOTE;
+
+        OPERATOR_TOKENS['>'] = REL_OP;
+        OPERATOR_TOKENS['<'] = REL_OP;
+        OPERATOR_TOKENS['='] = ASSIGN;
+        OPERATOR_TOKENS['+'] = ADD_OP;
+        OPERATOR_TOKENS['-'] = ADD_OP;
+        OPERATOR_TOKENS['*'] = MULT_OP;
+        OPERATOR_TOKENS['/'] = MULT_OP;
+        OPERATOR_TOKENS['^'] = POW_OP;
+        OPERATOR_TOKENS['('] = BRACKET_OP;
+        OPERATOR_TOKENS[')'] = BRACKET_OP;
+        OPERATOR_TOKENS[':'] = PUNCT;
+        for (int c = 0; c < OPERATOR_TOKENS.length; c++) {
+            if (OPERATOR_TOKENS[c] != null) {
+                CHAR_CLASSES[c] = OPERATOR;
+            }
+        }
+
+        KEYWORDS.put("true", CONSTANT);
+        KEYWORDS.put("false", CONSTANT);
+        KEYWORDS.put("var", DECLARATION);
+        KEYWORDS.put("val", DECLARATION);
+        KEYWORDS.put("for", LOOP);
+        KEYWORDS.put("while", LOOP);
+        KEYWORDS.put("to", LOOP);
+        KEYWORDS.put("do", LOOP);
+        KEYWORDS.put("end", LOOP);
+        KEYWORDS.put("if", CONDITION);
+        KEYWORDS.put("then", CONDITION);
+        KEYWORDS.put("goto", JUMP);
+        KEYWORDS.put("in", IO);
+        KEYWORDS.put("out", IO);
+        KEYWORDS.put("number", TYPE);
+        KEYWORDS.put("boolean", TYPE);
+        KEYWORDS.put("string", TYPE);
+    }
+
+    private final CharSequence text;
+    private final int limit;
+    private final Consumer<Lexem> consumer;
+    private final TokenStream stream;
+    private final Consumer<Lexem> unknownConsumer;
+    private int position;
+    private int rowNumber;
+
+    private LexemScanner(CharSequence text, int from, int to, int rowNumber,
+                         Consumer<Lexem> consumer, TokenStream stream, Consumer<Lexem> unknownConsumer) {
+        this.text = text;
+        this.position = from;
+        this.limit = to;
+        this.rowNumber = rowNumber;
+        this.consumer = consumer;
+        this.stream = stream;
+        this.unknownConsumer = unknownConsumer;
+    }
+
+    public static List<Lexem> scan(String text) {
+        final List<Lexem> lexems = new ArrayList<>();
+        scan(text, 1, lexems::add);
+        return lexems;
+    }
+
+    public static int scan(CharSequence text, int firstRowNumber, Consumer<Lexem> consumer) {
+        return scan(text, 0, text.length(), firstRowNumber, consumer, LexemScanner::reportUnknown);
+    }
+
+    public static int scan(CharSequence text, int from, int to, int firstRowNumber,
+                           Consumer<Lexem> consumer, Consumer<Lexem> unknownConsumer) {
+        final LexemScanner scanner = new LexemScanner(text, from, to, firstRowNumber, consumer, null, unknownConsumer);
+        scanner.scanAll();
+        return scanner.rowNumber;
+    }
+
+    public static int scan(CharSequence text, int from, int to, int firstRowNumber,
+                           TokenStream stream, Consumer<Lexem> unknownConsumer) {
+        final LexemScanner scanner = new LexemScanner(text, from, to, firstRowNumber, null, stream, unknownConsumer);
+        scanner.scanAll();
+        return scanner.rowNumber;
+    }
+
+    public static void reportUnknown(Lexem unknown) {
+        reportUnknown(unknown, System.err);
+    }
+
+    public static void reportUnknown(Lexem unknown, PrintStream err) {
+        err.format("Unidentified lexem \"%s\" on the row %d.\n", unknown.getName(), unknown.getRowNumber());
+    }
+
+    private static byte charClass(char c) {
+        return c < CHAR_CLASSES.length ? CHAR_CLASSES[c] : OTHER;
+    }
+
+    private char charAt(int index) {
+        return index < limit ? text.charAt(index) : '\n';
+    }
+
+    private void scanAll() {
+        while (position < limit) {
+            final char c = text.charAt(position);
+
+            switch (charClass(c)) {
+                case NEW_LINE:
+                    rowNumber++;
+                    position++;
+                    break;
+                case SPACE:
+                    position++;
+                    break;
+                case LETTER:
+                    scanWord();
+                    break;
+                case DIGIT:
+                    scanNumber();
+                    break;
+                case QUOTE:
+                    scanString();
+                    break;
+                case OPERATOR:
+                    scanOperator(c);
+                    break;
+                default:
+                    if (c == '!' && charAt(position + 1) == '=') {
+                        addLexem(position + 2, REL_OP);
+                    } else {
+                        scanUnknown(position + 1);
+                    }
+            }
+        }
+    }
+
+    private void scanWord() {
+        final int start = position;
+        int end = position + 1;
+        while (true) {
+            final byte charClass = charClass(charAt(end));
+            if (charClass == DIGIT) {
+                final int digitsEnd = skipDigits(end);
+                if (skipFraction(digitsEnd) != digitsEnd) {
+                    break;
+                }
+                end = digitsEnd;
+            } else if (charClass == LETTER || charClass == UNDERSCORE) {
+                end++;
+            } else {
+                break;
+            }
+        }
+
+        if (!isDelimiter(end)) {
+            scanUnknown(end);
+            return;
+        }
+
+        if (stream != null) {
+            final int nameId = stream.intern(text, start, end);
+            stream.add(rowNumber, KEYWORDS.getOrDefault(stream.name(nameId), IDENTIFIER), nameId, -1);
+            position = end;
+            return;
+        }
+
+        final String name = text.subSequence(start, end).toString();
+        addLexem(name, end, KEYWORDS.getOrDefault(name, IDENTIFIER));
+    }
+
+    private void scanNumber() {
+        final int digitsEnd = skipDigits(position);
+        final int end = skipFraction(digitsEnd);
+
+        if (end == digitsEnd && !isDelimiter(end)) {
+            scanUnknown(end);
+            return;
+        }
+
+        addLexem(end, CONSTANT);
+    }
+
+    private int skipDigits(int index) {
+        while (charClass(charAt(index)) == DIGIT) {
+            index++;
+        }
+        return index;
+    }
+
+    private int skipFraction(int index) {
+        if (charAt(index) == '.' && charClass(charAt(index + 1)) == DIGIT) {
+            index = skipDigits(index + 1);
+        }
+        if (charAt(index) == 'e' && (charAt(index + 1) == '+' || charAt(index + 1) == '-')
+                && charClass(charAt(index + 2)) == DIGIT) {
+            index = skipDigits(index + 2);
+        }
+        return index;
+    }
+
+    private void scanString() {
+        final int end = findClosingQuote(position);
+        if (end == -1) {
+            scanUnknown(position + 1);
+            return;
+        }
+
+        addLexem(end + 1, CONSTANT);
+    }
+
+    private int findClosingQuote(int index) {
+        int end = index + 1;
+        while (end < limit && text.charAt(end) != '\'' && text.charAt(end) != '\n') {
+            end++;
+        }
+        return charAt(end) == '\'' ? end : -1;
+    }
+
+    private boolean isDelimiter(int index) {
+        final char c = charAt(index);
+        switch (charClass(c)) {
+            case SPACE:
+            case NEW_LINE:
+            case OPERATOR:
+                return true;
+            case QUOTE:
+                return findClosingQuote(index) != -1;
+            case DIGIT:
+                final int digitsEnd = skipDigits(index);
+                return skipFraction(digitsEnd) != digitsEnd;
+            default:
+                return c == '!' && charAt(index + 1) == '=';
+        }
+    }
+
+    private void scanOperator(char c) {
+        if ((c == '>' || c == '<' || c == '=') && charAt(position + 1) == '=') {
+            addLexem(position + 2, REL_OP);
+        } else {
+            addLexem(position + 1, OPERATOR_TOKENS[c]);
+        }
+    }
+
+    private void scanUnknown(int from) {
+        int end = from;
+        while (!isDelimiter(end)) {
+            end = charClass(charAt(end)) == DIGIT ? skipDigits(end) : end + 1;
+        }
+        reportUnknown(position, end);
+    }
+
+    private void reportUnknown(int start, int end) {
+        unknownConsumer.accept(new Lexem(rowNumber, text.subSequence(start, end).toString(), UNKNOWN));
+        position = end;
+    }
+
+    private void addLexem(int end, Token token) {
+        if (stream != null) {
+            stream.add(rowNumber, token, text, position, end);
+            position = end;
+            return;
+        }
+        addLexem(text.subSequence(position, end).toString(), end, token);
+    }
+
+    private void addLexem(String name, int end, Token token) {
+        consumer.accept(new Lexem(rowNumber, name, token));
+        position = end;
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.vladhuk.l1compiler.lexical;
 
-import com.vladhuk.l1compiler.util.Util;
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.tables.TableFormat;
+import com.vladhuk.l1compiler.tables.TableWriter;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
@@ -15,22 +18,76 @@ import static com.vladhuk.l1compiler.util.Util.splitIncludingDelimiters;
 
 public class LexicalAnalyzer {
 
+    public enum Mode {
+        DETERMINISTIC, REGEX, PARALLEL
+    }
+
     public static String parse(String text) {
-        final List<String> rows = Arrays.asList(text.split("\n"));
+        return parse(text, Mode.DETERMINISTIC);
+    }
+
+    public static String parse(String text, Mode mode) {
+        return analyze(text, mode).lexemTablesToString();
+    }
+
+    public static CompilationUnit analyze(String text) {
+        return analyze(text, Mode.DETERMINISTIC);
+    }
+
+    public static CompilationUnit analyze(String text, Mode mode) {
+        return analyze(text, mode, System.err);
+    }
+
+    public static CompilationUnit analyze(String text, Mode mode, PrintStream err) {
+        if (mode == Mode.PARALLEL) {
+            return new ParallelLexer().analyze(text, err);
+        }
+
+        final List<Lexem> lexemsTable = new ArrayList<>();
+        if (mode == Mode.REGEX) {
+            lexemsTable.addAll(createLexemsTable(Arrays.asList(text.split("\n")), err));
+        } else {
+            LexemScanner.scan(text, 0, text.length(), 1, lexemsTable::add, unknown -> LexemScanner.reportUnknown(unknown, err));
+        }
+        final SymbolTable constantsTable = new SymbolTable();
+        final SymbolTable identifiersTable = new SymbolTable();
+        addLexemIndexes(lexemsTable, constantsTable, identifiersTable);
+
+        return new CompilationUnit(lexemsTable, constantsTable, identifiersTable);
+    }
+
+    public static TokenStream tokenize(CharSequence text, SymbolTable constants, SymbolTable identifiers) {
+        return tokenize(text, constants, identifiers, System.err);
+    }
 
-        final List<Lexem> lexemsTable = createLexemsTable(rows);
-        final Set<Pair> constantsTable = addLexemIndexesAndGetPairTable(lexemsTable, CONSTANT);
-        final Set<Pair> identifiersTable = addLexemIndexesAndGetPairTable(lexemsTable, IDENTIFIER);
+    public static TokenStream tokenize(CharSequence text, SymbolTable constants, SymbolTable identifiers, PrintStream err) {
+        final TokenStream stream = new TokenStream(text.length() / 4);
+        LexemScanner.scan(text, 0, text.length(), 1, stream, unknown -> LexemScanner.reportUnknown(unknown, err));
+        addTokenIndexes(stream, constants, identifiers);
+        return stream;
+    }
+
+    private static void addTokenIndexes(TokenStream stream, SymbolTable constants, SymbolTable identifiers) {
+        final int[] nameIndexes = new int[stream.nameCount()];
+        Arrays.fill(nameIndexes, -1);
+
+        for (int position = 0; position < stream.size(); position++) {
+            final Token token = stream.getToken(position);
+            if (token != CONSTANT && token != IDENTIFIER) {
+                continue;
+            }
 
-        return Util.tableToString(lexemsTable) +
-                "\n-----\n" +
-                Util.tableToString(constantsTable) +
-                "\n-----\n" +
-                Util.tableToString(identifiersTable) +
-                "\n-----";
+            final int nameId = stream.getNameId(position);
+            if (nameIndexes[nameId] == -1) {
+                final Lexem lexem = new Lexem(stream.getRowNumber(position), stream.name(nameId), token);
+                addLexemIndex(lexem, constants, identifiers);
+                nameIndexes[nameId] = lexem.getIndex();
+            }
+            stream.setIndex(position, nameIndexes[nameId]);
+        }
     }
 
-    private static List<Lexem> createLexemsTable(List<String> rows) {
+    private static List<Lexem> createLexemsTable(List<String> rows, PrintStream err) {
         final Pattern delimiter = Pattern.compile(
                 "'[^']*'"                                    // String
                 + "|\\d+(((\\.\\d+)?e[+-]\\d+)|(\\.\\d+))"   // Number
@@ -52,7 +109,7 @@ public class LexicalAnalyzer {
                     .map(lexemName -> {
                         final Token token = Token.getToken(lexemName);
                         if (token == UNKNOWN) {
-                            System.err.format("Unidentified lexem \"%s\" on the row %d.\n", lexemName, rowNumber + 1);
+                            err.format("Unidentified lexem \"%s\" on the row %d.\n", lexemName, rowNumber + 1);
                             return null;
                         } else {
                             return new Lexem(rowNumber + 1, lexemName, token);
@@ -67,50 +124,84 @@ public class LexicalAnalyzer {
         return lexemsTable;
     }
 
-    private static Set<Pair> addLexemIndexesAndGetPairTable(List<Lexem> lexemsTable, Token pairType) {
-        final Set<Pair> pairTable = new LinkedHashSet<>();
+    private static void addLexemIndexes(List<Lexem> lexemsTable, SymbolTable constants, SymbolTable identifiers) {
         for (Lexem lexem : lexemsTable) {
-            if (lexem.getToken() == pairType) {
-                final Pair pair = new Pair();
-                pair.setName(lexem.getName());
-                if (pairType == CONSTANT) {
-                    if (lexem.getName().matches("true|false")) {
-                        pair.setType(Pair.Type.BOOLEAN);
-                    } else if (lexem.getName().startsWith("'")) {
-                        pair.setType(Pair.Type.STRING);
-                    } else {
-                        pair.setType(Pair.Type.NUMBER);
-                    }
-                    pair.setValue(lexem.getName());
-                }
-                pairTable.add(pair);
+            addLexemIndex(lexem, constants, identifiers);
+        }
+    }
+
+    public static void addLexemIndex(Lexem lexem, SymbolTable constants, SymbolTable identifiers) {
+        if (lexem.getToken() == CONSTANT) {
+            final Pair pair = constants.intern(lexem.getName());
+            if (pair.getType() == Pair.Type.UNDEF) {
+                pair.setType(getConstantType(lexem.getName()));
+                pair.setValue(lexem.getName());
             }
+            lexem.setIndex(pair.getIndex());
+        } else if (lexem.getToken() == IDENTIFIER) {
+            lexem.setIndex(identifiers.intern(lexem.getName()).getIndex());
         }
+    }
 
-        int pairIndex = 0;
-        for (Pair pair : pairTable) {
-            pair.setIndex(pairIndex++);
+    private static Pair.Type getConstantType(String constant) {
+        if (constant.equals("true") || constant.equals("false")) {
+            return Pair.Type.BOOLEAN;
+        } else if (constant.startsWith("'")) {
+            return Pair.Type.STRING;
+        } else {
+            return Pair.Type.NUMBER;
         }
+    }
 
-        lexemsTable.forEach(lexem -> {
-            if (lexem.getToken() == pairType) {
-                for (Pair element : pairTable) {
-                    if (Objects.equals(element.getName(), lexem.getName())) {
-                        lexem.setIndex(element.getIndex());
-                    }
-                }
-            }
-        });
+    public static void parse(Path source, Path destination) throws IOException {
+        parse(source, destination, Mode.DETERMINISTIC);
+    }
 
-        return pairTable;
+    public static void parse(Path source, Path destination, Mode mode) throws IOException {
+        parse(source, destination, mode, TableFormat.TEXT);
     }
 
-    public static void parse(Path source, Path destination) throws IOException {
-        Files.writeString(destination, parse(Files.readString(source)));
+    public static void parse(Path source, Path destination, Mode mode, TableFormat format) throws IOException {
+        if (mode != Mode.DETERMINISTIC) {
+            analyze(Files.readString(source), mode).writeLexemTables(destination, format);
+            return;
+        }
+
+        try (TableWriter tableWriter = TableWriter.open(destination, format)) {
+            final StreamingLexer lexer = new StreamingLexer();
+
+            lexer.lex(source, tableWriter::write);
+
+            tableWriter.nextTable();
+            tableWriter.writeAll(lexer.getConstants());
+            tableWriter.nextTable();
+            tableWriter.writeAll(lexer.getIdentifiers());
+            tableWriter.finish();
+        }
     }
 
     public static void parse(File source, File destination) throws IOException {
         parse(source.toPath(), destination.toPath());
     }
 
+    public static void parse(File source, File destination, Mode mode) throws IOException {
+        parse(source.toPath(), destination.toPath(), mode);
+    }
+
+    public static CompilationUnit analyze(Path source, Mode mode) throws IOException {
+        return analyze(source, mode, System.err);
+    }
+
+    public static CompilationUnit analyze(Path source, Mode mode, PrintStream err) throws IOException {
+        if (mode != Mode.DETERMINISTIC) {
+            return analyze(Files.readString(source), mode, err);
+        }
+
+        final StreamingLexer lexer = new StreamingLexer(StreamingLexer.DEFAULT_CHUNK_SIZE, err);
+        final List<Lexem> lexemsTable = new ArrayList<>();
+        lexer.lex(source, lexemsTable::add);
+
+        return new CompilationUnit(lexemsTable, lexer.getConstants(), lexer.getIdentifiers());
+    }
+
 }
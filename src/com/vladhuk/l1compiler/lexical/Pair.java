@@ -1,5 +1,7 @@
 package com.vladhuk.l1compiler.lexical;
 
+import com.vladhuk.l1compiler.util.Util;
+
 import java.util.Objects;
 
 public class Pair {
@@ -23,9 +25,21 @@ public class Pair {
         this.modifiable = modifiable;
     }
 
+    public Pair(Pair pair) {
+        this(pair.name, pair.type, pair.value, pair.modifiable, pair.index);
+    }
+
     @Override
     public String toString() {
-        return String.format("%-15s %-10s %-15s %-7s %-7d", name, type.name(), value, modifiable, index);
+        return appendTo(new StringBuilder(60)).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder builder) {
+        Util.appendPadded(builder, name, 15).append(' ');
+        Util.appendPadded(builder, type.name(), 10).append(' ');
+        Util.appendPadded(builder, value, 15).append(' ');
+        Util.appendPadded(builder, String.valueOf(modifiable), 7).append(' ');
+        return Util.appendPadded(builder, index, 7);
     }
 
     @Override
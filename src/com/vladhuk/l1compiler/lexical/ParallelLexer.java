@@ -0,0 +1,115 @@
+package com.vladhuk.l1compiler.lexical;
+
+import com.vladhuk.l1compiler.CompilationUnit;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+public class ParallelLexer {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+
+    public ParallelLexer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelLexer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public CompilationUnit analyze(String text) {
+        return analyze(text, System.err);
+    }
+
+    public CompilationUnit analyze(String text, PrintStream err) {
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, text.length() / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        final List<Chunk> chunks = pool.invoke(new ScanTask(text, 0, text.length(), chunkSize));
+
+        int lexemsCount = 0;
+        for (Chunk chunk : chunks) {
+            lexemsCount += chunk.lexems.size();
+        }
+
+        final List<Lexem> lexems = new ArrayList<>(lexemsCount);
+        final SymbolTable constants = new SymbolTable();
+        final SymbolTable identifiers = new SymbolTable();
+        int rowOffset = 1;
+
+        for (Chunk chunk : chunks) {
+            for (Lexem unknown : chunk.unknowns) {
+                unknown.setRowNumber(unknown.getRowNumber() + rowOffset);
+                LexemScanner.reportUnknown(unknown, err);
+            }
+            for (Lexem lexem : chunk.lexems) {
+                lexem.setRowNumber(lexem.getRowNumber() + rowOffset);
+                LexicalAnalyzer.addLexemIndex(lexem, constants, identifiers);
+                lexems.add(lexem);
+            }
+            rowOffset += chunk.rows;
+        }
+
+        return new CompilationUnit(lexems, constants, identifiers);
+    }
+
+    private static class Chunk {
+
+        private final List<Lexem> lexems = new ArrayList<>();
+        private final List<Lexem> unknowns = new ArrayList<>();
+        private int rows;
+
+    }
+
+    private static class ScanTask extends RecursiveTask<List<Chunk>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private ScanTask(String text, int from, int to, int chunkSize) {
+            this.text = text;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected List<Chunk> compute() {
+            final int split = to - from > chunkSize ? findRowStart(from + (to - from) / 2) : -1;
+
+            if (split == -1) {
+                final Chunk chunk = new Chunk();
+                chunk.rows = LexemScanner.scan(text, from, to, 0, chunk.lexems::add, chunk.unknowns::add);
+
+                final List<Chunk> chunks = new ArrayList<>(1);
+                chunks.add(chunk);
+                return chunks;
+            }
+
+            final ScanTask left = new ScanTask(text, from, split, chunkSize);
+            final ScanTask right = new ScanTask(text, split, to, chunkSize);
+            left.fork();
+
+            final List<Chunk> rightChunks = right.compute();
+            final List<Chunk> chunks = left.join();
+            chunks.addAll(rightChunks);
+            return chunks;
+        }
+
+        private int findRowStart(int index) {
+            final int newLine = text.indexOf('\n', index);
+            return newLine == -1 || newLine + 1 >= to ? -1 : newLine + 1;
+        }
+
+    }
+
+}
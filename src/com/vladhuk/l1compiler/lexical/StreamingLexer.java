@@ -0,0 +1,147 @@
+package com.vladhuk.l1compiler.lexical;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+
+public class StreamingLexer {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    public interface LexemHandler {
+        void accept(Lexem lexem) throws IOException;
+    }
+
+    private final SymbolTable constants = new SymbolTable();
+    private final SymbolTable identifiers = new SymbolTable();
+    private final StringBuilder row = new StringBuilder();
+    private final List<Lexem> rowLexems = new ArrayList<>();
+    private final int chunkSize;
+    private final Consumer<Lexem> unknownReporter;
+
+    private LexemHandler handler;
+    private int rowNumber;
+
+    public StreamingLexer() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public StreamingLexer(int chunkSize) {
+        this(chunkSize, System.err);
+    }
+
+    public StreamingLexer(int chunkSize, PrintStream err) {
+        this.chunkSize = chunkSize;
+        this.unknownReporter = unknown -> LexemScanner.reportUnknown(unknown, err);
+    }
+
+    public void lex(Path source, LexemHandler handler) throws IOException {
+        start(handler);
+
+        final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        final ByteBuffer bytes = ByteBuffer.allocateDirect(chunkSize);
+        final CharBuffer chars = CharBuffer.allocate(chunkSize);
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            boolean endOfInput = false;
+
+            while (!endOfInput) {
+                endOfInput = channel.read(bytes) == -1;
+                bytes.flip();
+
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, endOfInput);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    consume(chars);
+                } while (result.isOverflow());
+
+                bytes.compact();
+            }
+
+            decoder.flush(chars);
+            consume(chars);
+        }
+
+        finish();
+    }
+
+    public void lex(Reader source, LexemHandler handler) throws IOException {
+        start(handler);
+
+        final CharBuffer chars = CharBuffer.allocate(chunkSize);
+        while (source.read(chars) != -1) {
+            consume(chars);
+        }
+
+        finish();
+    }
+
+    private void start(LexemHandler handler) {
+        this.handler = handler;
+        this.rowNumber = 1;
+        row.setLength(0);
+    }
+
+    private void consume(CharBuffer chars) throws IOException {
+        final char[] array = chars.array();
+        final int limit = chars.position();
+        int rowStart = 0;
+
+        for (int i = 0; i < limit; i++) {
+            if (array[i] == '\n') {
+                row.append(array, rowStart, i - rowStart);
+                scanRow();
+                rowNumber++;
+                rowStart = i + 1;
+            }
+        }
+
+        row.append(array, rowStart, limit - rowStart);
+        chars.clear();
+    }
+
+    private void scanRow() throws IOException {
+        LexemScanner.scan(row, 0, row.length(), rowNumber, rowLexems::add, unknownReporter);
+        row.setLength(0);
+
+        for (Lexem lexem : rowLexems) {
+            LexicalAnalyzer.addLexemIndex(lexem, constants, identifiers);
+            handler.accept(lexem);
+        }
+        rowLexems.clear();
+    }
+
+    private void finish() throws IOException {
+        if (row.length() > 0) {
+            scanRow();
+        }
+        handler = null;
+    }
+
+    public SymbolTable getConstants() {
+        return constants;
+    }
+
+    public SymbolTable getIdentifiers() {
+        return identifiers;
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.vladhuk.l1compiler.lexical;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+
+public class SymbolTable extends AbstractList<Pair> implements RandomAccess {
+
+    private final List<Pair> pairs = new ArrayList<>();
+    private final Map<String, Pair> pairsByName = new HashMap<>();
+    private final BitSet released = new BitSet();
+
+    public SymbolTable() {}
+
+    public SymbolTable(Collection<Pair> pairs) {
+        addAll(pairs);
+    }
+
+    public Pair intern(String name) {
+        final Pair existing = pairsByName.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        final Pair pair = new Pair();
+        pair.setName(name);
+        pair.setIndex(nextIndex());
+        put(pair);
+        return pair;
+    }
+
+    public int nextIndex() {
+        final int index = released.nextSetBit(0);
+        return index == -1 ? pairs.size() : index;
+    }
+
+    public void put(Pair pair) {
+        final int index = pair.getIndex();
+        if (index == pairs.size()) {
+            add(pair);
+            return;
+        }
+        if (!released.get(index)) {
+            throw new IllegalStateException("Symbol " + index + " is still in use");
+        }
+        released.clear(index);
+        pairs.set(index, pair);
+        pairsByName.putIfAbsent(pair.getName(), pair);
+    }
+
+    public void release(int index) {
+        final Pair pair = pairs.get(index);
+        pairsByName.remove(pair.getName(), pair);
+        released.set(index);
+    }
+
+    public boolean isReleased(int index) {
+        return released.get(index);
+    }
+
+    public Pair get(String name) {
+        return pairsByName.get(name);
+    }
+
+    public int indexOfName(String name) {
+        final Pair pair = pairsByName.get(name);
+        return pair == null ? -1 : pair.getIndex();
+    }
+
+    @Override
+    public Pair get(int index) {
+        return pairs.get(index);
+    }
+
+    @Override
+    public int size() {
+        return pairs.size();
+    }
+
+    @Override
+    public void add(int index, Pair pair) {
+        if (index != pairs.size()) {
+            throw new UnsupportedOperationException("Symbols can only be appended");
+        }
+        pairs.add(pair);
+        pairsByName.putIfAbsent(pair.getName(), pair);
+    }
+
+}
@@ -0,0 +1,323 @@
+package com.vladhuk.l1compiler.lexical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class TokenStream {
+
+    private static final Token[] TOKENS = Token.values();
+
+    private int[] rows;
+    private int[] tokens;
+    private int[] names;
+    private int[] indices;
+    private int size;
+
+    private char[] pool = new char[256];
+    private int poolSize;
+    private int[] nameStarts = new int[32];
+    private int[] nameEnds = new int[32];
+    private int[] nameHashes = new int[32];
+    private String[] nameStrings = new String[32];
+    private int nameCount;
+    private int[] buckets = new int[64];
+
+    public TokenStream() {
+        this(64);
+    }
+
+    public TokenStream(int capacity) {
+        capacity = Math.max(capacity, 16);
+        rows = new int[capacity];
+        tokens = new int[capacity];
+        names = new int[capacity];
+        indices = new int[capacity];
+    }
+
+    public static TokenStream of(List<Lexem> lexems) {
+        final TokenStream stream = new TokenStream(lexems.size());
+        for (Lexem lexem : lexems) {
+            stream.add(lexem);
+        }
+        return stream;
+    }
+
+    public int add(Lexem lexem) {
+        return add(lexem.getRowNumber(), lexem.getToken(), intern(lexem.getName()), lexem.getIndex());
+    }
+
+    public int add(TokenStream source, int position) {
+        final int nameId = source == this ? names[position] : intern(source.getName(position));
+        return add(source.getRowNumber(position), source.getToken(position), nameId, source.getIndex(position));
+    }
+
+    public int add(int rowNumber, Token token, CharSequence text, int start, int end) {
+        return add(rowNumber, token, intern(text, start, end), -1);
+    }
+
+    public int add(int rowNumber, Token token, int nameId, int index) {
+        if (size == rows.length) {
+            final int capacity = size * 2;
+            rows = Arrays.copyOf(rows, capacity);
+            tokens = Arrays.copyOf(tokens, capacity);
+            names = Arrays.copyOf(names, capacity);
+            indices = Arrays.copyOf(indices, capacity);
+        }
+        rows[size] = rowNumber;
+        tokens[size] = token.ordinal();
+        names[size] = nameId;
+        indices[size] = index;
+        return size++;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int intern(CharSequence text) {
+        return intern(text, 0, text.length());
+    }
+
+    public int intern(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+
+        final int mask = buckets.length - 1;
+        int bucket = mix(hash) & mask;
+        while (buckets[bucket] != 0) {
+            final int nameId = buckets[bucket] - 1;
+            if (nameHashes[nameId] == hash && equalsName(nameId, text, start, end)) {
+                return nameId;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+
+        final int nameId = addName(text, start, end, hash);
+        buckets[bucket] = nameId + 1;
+        if (nameCount * 2 > buckets.length) {
+            rehash();
+        }
+        return nameId;
+    }
+
+    private boolean equalsName(int nameId, CharSequence text, int start, int end) {
+        final int nameStart = nameStarts[nameId];
+        if (nameEnds[nameId] - nameStart != end - start) {
+            return false;
+        }
+        for (int i = 0; i < end - start; i++) {
+            if (pool[nameStart + i] != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addName(CharSequence text, int start, int end, int hash) {
+        final int length = end - start;
+        if (poolSize + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + length));
+        }
+        for (int i = 0; i < length; i++) {
+            pool[poolSize + i] = text.charAt(start + i);
+        }
+
+        if (nameCount == nameStarts.length) {
+            final int capacity = nameCount * 2;
+            nameStarts = Arrays.copyOf(nameStarts, capacity);
+            nameEnds = Arrays.copyOf(nameEnds, capacity);
+            nameHashes = Arrays.copyOf(nameHashes, capacity);
+            nameStrings = Arrays.copyOf(nameStrings, capacity);
+        }
+        nameStarts[nameCount] = poolSize;
+        nameEnds[nameCount] = poolSize + length;
+        nameHashes[nameCount] = hash;
+        poolSize += length;
+        return nameCount++;
+    }
+
+    private void rehash() {
+        buckets = new int[buckets.length * 2];
+        final int mask = buckets.length - 1;
+        for (int nameId = 0; nameId < nameCount; nameId++) {
+            int bucket = mix(nameHashes[nameId]) & mask;
+            while (buckets[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            buckets[bucket] = nameId + 1;
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    public String name(int nameId) {
+        if (nameStrings[nameId] == null) {
+            nameStrings[nameId] = new String(pool, nameStarts[nameId], nameEnds[nameId] - nameStarts[nameId]);
+        }
+        return nameStrings[nameId];
+    }
+
+    public int nameCount() {
+        return nameCount;
+    }
+
+    public Lexem toLexem(int position) {
+        return new Lexem(rows[position], getName(position), getToken(position), indices[position]);
+    }
+
+    public List<Lexem> toLexems() {
+        return slice(0, size).toLexems();
+    }
+
+    public Cursor cursor() {
+        return new Cursor(this, 0, size);
+    }
+
+    public Slice slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Slice [" + from + ", " + to + ") is out of stream bounds [0, " + size + ")");
+        }
+        return new Slice(this, from, to);
+    }
+
+    public int size() {
+        return size;
+    }
+    public int getRowNumber(int position) {
+        return rows[position];
+    }
+    public Token getToken(int position) {
+        return TOKENS[tokens[position]];
+    }
+    public int getNameId(int position) {
+        return names[position];
+    }
+    public String getName(int position) {
+        return name(names[position]);
+    }
+    public int getIndex(int position) {
+        return indices[position];
+    }
+    public void setIndex(int position, int index) {
+        indices[position] = index;
+    }
+
+    public static final class Slice {
+
+        private final TokenStream stream;
+        private final int from;
+        private final int to;
+
+        private Slice(TokenStream stream, int from, int to) {
+            this.stream = stream;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Slice slice(int from, int to) {
+            if (from < 0 || this.from + to > this.to || from > to) {
+                throw new IndexOutOfBoundsException("Slice [" + from + ", " + to + ") is out of slice bounds [0, " + size() + ")");
+            }
+            return new Slice(stream, this.from + from, this.from + to);
+        }
+
+        public Cursor cursor() {
+            return new Cursor(stream, from, to);
+        }
+
+        public List<Lexem> toLexems() {
+            final List<Lexem> lexems = new ArrayList<>(to - from);
+            for (int position = from; position < to; position++) {
+                lexems.add(stream.toLexem(position));
+            }
+            return lexems;
+        }
+
+        public TokenStream getStream() {
+            return stream;
+        }
+        public int getFrom() {
+            return from;
+        }
+        public int getTo() {
+            return to;
+        }
+        public int size() {
+            return to - from;
+        }
+        public int getRowNumber(int offset) {
+            return stream.getRowNumber(from + offset);
+        }
+        public Token getToken(int offset) {
+            return stream.getToken(from + offset);
+        }
+        public int getNameId(int offset) {
+            return stream.getNameId(from + offset);
+        }
+        public String getName(int offset) {
+            return stream.getName(from + offset);
+        }
+        public int getIndex(int offset) {
+            return stream.getIndex(from + offset);
+        }
+
+    }
+
+    public static final class Cursor {
+
+        private final TokenStream stream;
+        private final int to;
+        private int position;
+
+        private Cursor(TokenStream stream, int from, int to) {
+            this.stream = stream;
+            this.position = from;
+            this.to = to;
+        }
+
+        public boolean hasCurrent() {
+            return position < to;
+        }
+
+        public boolean hasNext() {
+            return position + 1 < to;
+        }
+
+        public void advance() {
+            position++;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+        public void setPosition(int position) {
+            this.position = position;
+        }
+        public int getRowNumber() {
+            return stream.getRowNumber(position);
+        }
+        public int getNextRowNumber() {
+            return stream.getRowNumber(position + 1);
+        }
+        public Token getToken() {
+            return stream.getToken(position);
+        }
+        public int getNameId() {
+            return stream.getNameId(position);
+        }
+        public String getName() {
+            return stream.getName(position);
+        }
+        public int getIndex() {
+            return stream.getIndex(position);
+        }
+
+    }
+
+}
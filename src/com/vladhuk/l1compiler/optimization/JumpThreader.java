@@ -0,0 +1,102 @@
+package com.vladhuk.l1compiler.optimization;
+
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.Token;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+public class JumpThreader {
+
+    private final List<Lexem> rpn;
+    private final List<Pair> identifiers;
+    private final Map<Integer, Integer> labels = new HashMap<>();
+
+    private JumpThreader(List<Lexem> rpn, List<Pair> identifiers) {
+        this.rpn = rpn;
+        this.identifiers = identifiers;
+    }
+
+    public static List<Lexem> thread(List<Lexem> rpn, List<Pair> identifiers) {
+        return new JumpThreader(new ArrayList<>(rpn), identifiers).thread();
+    }
+
+    private List<Lexem> thread() {
+        for (int i = 0; i + 1 < rpn.size(); i++) {
+            if (isMark(rpn.get(i)) && isLabelDefinition(rpn.get(i + 1))) {
+                labels.putIfAbsent(rpn.get(i).getIndex(), i);
+                i++;
+            }
+        }
+
+        for (int i = 0; i + 1 < rpn.size(); i++) {
+            final Lexem mark = rpn.get(i);
+            if (!isMark(mark) || !isJump(rpn.get(i + 1))) {
+                continue;
+            }
+
+            final Lexem target = findFinalTarget(mark);
+            if (target != mark) {
+                final Lexem threaded = new Lexem(target);
+                threaded.setRowNumber(mark.getRowNumber());
+                rpn.set(i, threaded);
+            }
+            i++;
+        }
+
+        return rpn;
+    }
+
+    private Lexem findFinalTarget(Lexem mark) {
+        final Set<Integer> visited = new HashSet<>();
+        Lexem target = mark;
+
+        while (isDeclaredMark(target) && visited.add(target.getIndex())) {
+            final Integer label = labels.get(target.getIndex());
+            if (label == null) {
+                break;
+            }
+
+            int position = label;
+            while (position + 1 < rpn.size() && isMark(rpn.get(position)) && isLabelDefinition(rpn.get(position + 1))) {
+                position += 2;
+            }
+
+            if (position + 1 >= rpn.size() || !rpn.get(position + 1).getName().equals("goto")) {
+                break;
+            }
+
+            final Lexem next = rpn.get(position);
+            if (!isMark(next) || !isDeclaredMark(next) || !labels.containsKey(next.getIndex())) {
+                break;
+            }
+            target = next;
+        }
+
+        return target;
+    }
+
+    private boolean isDeclaredMark(Lexem mark) {
+        return mark.getIndex() >= 0 && mark.getIndex() < identifiers.size()
+                && identifiers.get(mark.getIndex()).getType() == Pair.Type.MARK;
+    }
+
+    static boolean isMark(Lexem symbol) {
+        return symbol.getToken() == Token.IDENTIFIER;
+    }
+
+    static boolean isLabelDefinition(Lexem symbol) {
+        return symbol.getToken() == Token.PUNCT && symbol.getName().equals(":");
+    }
+
+    static boolean isJump(Lexem symbol) {
+        return symbol.getName().equals("goto") || symbol.getName().equals("if");
+    }
+
+}
@@ -0,0 +1,478 @@
+package com.vladhuk.l1compiler.optimization;
+
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+import com.vladhuk.l1compiler.lexical.Token;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.vladhuk.l1compiler.optimization.JumpThreader.isJump;
+import static com.vladhuk.l1compiler.optimization.JumpThreader.isLabelDefinition;
+import static com.vladhuk.l1compiler.optimization.JumpThreader.isMark;
+
+
+public class LoopInvariantHoister {
+
+    private static final String TEMPORARY_PREFIX = "$";
+
+    private final List<Lexem> rpn;
+    private final SymbolTable constants;
+    private final List<Pair> identifiers;
+
+    private final Map<Integer, Integer> labels = new HashMap<>();
+    private final Map<Integer, List<Integer>> jumps = new HashMap<>();
+
+    private LoopInvariantHoister(List<Lexem> rpn, SymbolTable constants, List<Pair> identifiers) {
+        this.rpn = rpn;
+        this.constants = constants;
+        this.identifiers = identifiers;
+    }
+
+    public static List<Lexem> hoist(List<Lexem> rpn, SymbolTable constants, List<Pair> identifiers) {
+        return new LoopInvariantHoister(new ArrayList<>(rpn), constants, identifiers).hoist();
+    }
+
+    private List<Lexem> hoist() {
+        findJumps();
+
+        final List<Loop> loops = findLoops();
+        final Map<Integer, BitSet> initialized = findInitialized(loops);
+
+        for (int i = loops.size() - 1; i >= 0; i--) {
+            final Loop loop = loops.get(i);
+            final int backEdge = loop.backEdge;
+            final int delta = hoist(loop, initialized.get(loop.header));
+
+            for (int j = 0; j < i; j++) {
+                final Loop outer = loops.get(j);
+                if (outer.backEdge > backEdge) {
+                    outer.backEdge += delta;
+                }
+            }
+        }
+
+        return rpn;
+    }
+
+    private void findJumps() {
+        for (int i = 0; i + 1 < rpn.size(); i++) {
+            final Lexem symbol = rpn.get(i);
+            final Lexem next = rpn.get(i + 1);
+
+            if (!isMark(symbol)) {
+                continue;
+            }
+            if (isLabelDefinition(next)) {
+                labels.putIfAbsent(symbol.getIndex(), i);
+                i++;
+            } else if (isJump(next)) {
+                jumps.computeIfAbsent(symbol.getIndex(), mark -> new ArrayList<>()).add(i);
+                i++;
+            }
+        }
+    }
+
+    private List<Loop> findLoops() {
+        final List<Loop> loops = new ArrayList<>();
+
+        for (int i = 0; i + 3 < rpn.size(); i++) {
+            if (!isMark(rpn.get(i)) || !rpn.get(i + 1).getName().equals("goto")
+                    || !isMark(rpn.get(i + 2)) || !isLabelDefinition(rpn.get(i + 3))) {
+                continue;
+            }
+
+            final int mark = rpn.get(i).getIndex();
+            final int exit = rpn.get(i + 2).getIndex();
+            final Integer header = labels.get(mark);
+
+            if (header != null && header < i && Integer.valueOf(i + 2).equals(labels.get(exit))
+                    && jumps.get(mark).size() == 1 && isClosed(header, i)) {
+                loops.add(new Loop(header, i));
+            }
+        }
+
+        loops.sort(Comparator.comparingInt(loop -> loop.header));
+        return loops;
+    }
+
+    private boolean isClosed(int header, int backEdge) {
+        for (int i = header; i <= backEdge; i++) {
+            if (!isMark(rpn.get(i)) || !isLabelDefinition(rpn.get(i + 1))) {
+                continue;
+            }
+            if (labels.get(rpn.get(i).getIndex()) == i) {
+                for (int jump : jumps.getOrDefault(rpn.get(i).getIndex(), List.of())) {
+                    if (jump < header || jump > backEdge) {
+                        return false;
+                    }
+                }
+            }
+            i++;
+        }
+        return true;
+    }
+
+    private Map<Integer, BitSet> findInitialized(List<Loop> loops) {
+        final Map<Integer, BitSet> initialized = new HashMap<>();
+        final Map<Integer, BitSet> incoming = new HashMap<>();
+        final List<Lexem> stack = new ArrayList<>();
+        BitSet assigned = new BitSet();
+
+        int nextLoop = 0;
+        for (int i = 0; i < rpn.size(); i++) {
+            final Lexem symbol = rpn.get(i);
+            final Lexem next = i + 1 < rpn.size() ? rpn.get(i + 1) : null;
+
+            if (isMark(symbol) && next != null && isLabelDefinition(next)) {
+                final BitSet jumped = incoming.remove(symbol.getIndex());
+                if (assigned == null) {
+                    assigned = jumped != null ? jumped : new BitSet();
+                } else if (jumped != null) {
+                    assigned.and(jumped);
+                }
+
+                while (nextLoop < loops.size() && loops.get(nextLoop).header < i) {
+                    nextLoop++;
+                }
+                if (nextLoop < loops.size() && loops.get(nextLoop).header == i) {
+                    initialized.put(i, (BitSet) assigned.clone());
+                }
+
+                stack.clear();
+                i++;
+                continue;
+            }
+
+            if (isMark(symbol) && next != null && isJump(next)) {
+                final Integer label = labels.get(symbol.getIndex());
+                if (assigned != null && label != null && label > i) {
+                    final BitSet jumped = incoming.get(symbol.getIndex());
+                    if (jumped == null) {
+                        incoming.put(symbol.getIndex(), (BitSet) assigned.clone());
+                    } else {
+                        jumped.and(assigned);
+                    }
+                }
+                if (next.getName().equals("goto")) {
+                    assigned = null;
+                }
+
+                stack.clear();
+                i++;
+                continue;
+            }
+
+            if (assigned == null) {
+                continue;
+            }
+
+            switch (symbol.getToken()) {
+                case CONSTANT:
+                case IDENTIFIER:
+                    stack.add(symbol);
+                    continue;
+            }
+
+            switch (symbol.getName()) {
+                case "=":
+                    pop(stack);
+                    final Lexem target = pop(stack);
+                    if (target != null && target.getToken() == Token.IDENTIFIER) {
+                        assigned.set(target.getIndex());
+                    }
+                    stack.clear();
+                    break;
+                case "in":
+                    final Lexem input = pop(stack);
+                    if (input != null && input.getToken() == Token.IDENTIFIER) {
+                        assigned.set(input.getIndex());
+                    }
+                    stack.clear();
+                    break;
+                case "@":
+                    pop(stack);
+                    stack.add(symbol);
+                    break;
+                case "var":
+                case "val":
+                    break;
+                case "+":
+                case "-":
+                case "*":
+                case "/":
+                case "^":
+                case "==":
+                case "!=":
+                case "<":
+                case ">":
+                case "<=":
+                case ">=":
+                    pop(stack);
+                    pop(stack);
+                    stack.add(symbol);
+                    break;
+                default:
+                    stack.clear();
+            }
+        }
+
+        return initialized;
+    }
+
+    private int hoist(Loop loop, BitSet initialized) {
+        if (initialized == null) {
+            return 0;
+        }
+
+        final BitSet modified = findModified(loop);
+        final List<int[]> invariants = findInvariants(loop, initialized, modified);
+        if (invariants.isEmpty()) {
+            return 0;
+        }
+        invariants.sort(Comparator.comparingInt(range -> range[0]));
+
+        final List<Lexem> preheader = new ArrayList<>();
+        final Lexem[] temporaries = new Lexem[invariants.size()];
+
+        for (int i = 0; i < invariants.size(); i++) {
+            final int[] range = invariants.get(i);
+            final int rowNumber = rpn.get(range[0]).getRowNumber();
+            temporaries[i] = createTemporary(rowNumber);
+
+            preheader.add(temporaries[i]);
+            preheader.addAll(rpn.subList(range[0], range[1]));
+            preheader.add(new Lexem(rowNumber, "=", Token.ASSIGN));
+        }
+
+        int delta = preheader.size();
+        for (int i = invariants.size() - 1; i >= 0; i--) {
+            final int[] range = invariants.get(i);
+            rpn.subList(range[0], range[1]).clear();
+            rpn.add(range[0], new Lexem(temporaries[i]));
+            delta += 1 - (range[1] - range[0]);
+        }
+
+        rpn.addAll(loop.header, preheader);
+        loop.backEdge += delta;
+        return delta;
+    }
+
+    private BitSet findModified(Loop loop) {
+        final BitSet modified = new BitSet();
+        final List<Lexem> stack = new ArrayList<>();
+
+        for (int i = loop.header + 2; i < loop.backEdge; i++) {
+            final Lexem symbol = rpn.get(i);
+
+            switch (symbol.getToken()) {
+                case CONSTANT:
+                case IDENTIFIER:
+                    stack.add(symbol);
+                    continue;
+            }
+
+            switch (symbol.getName()) {
+                case "=":
+                    pop(stack);
+                    markModified(modified, pop(stack));
+                    stack.clear();
+                    break;
+                case "in":
+                    markModified(modified, pop(stack));
+                    stack.clear();
+                    break;
+                case "var":
+                case "val":
+                    markModified(modified, stack.isEmpty() ? null : stack.get(stack.size() - 1));
+                    break;
+                case "@":
+                    pop(stack);
+                    stack.add(symbol);
+                    break;
+                case "+":
+                case "-":
+                case "*":
+                case "/":
+                case "^":
+                case "==":
+                case "!=":
+                case "<":
+                case ">":
+                case "<=":
+                case ">=":
+                    pop(stack);
+                    pop(stack);
+                    stack.add(symbol);
+                    break;
+                default:
+                    stack.clear();
+            }
+        }
+
+        return modified;
+    }
+
+    public static boolean isTemporary(Pair identifier) {
+        return identifier.getType() != Pair.Type.MARK && identifier.getName().startsWith(TEMPORARY_PREFIX);
+    }
+
+    public static List<Pair> withoutTemporaries(List<Pair> identifiers) {
+        return identifiers.stream()
+                .filter(identifier -> !isTemporary(identifier))
+                .collect(Collectors.toList());
+    }
+
+    private static void markModified(BitSet modified, Lexem target) {
+        if (target != null && target.getToken() == Token.IDENTIFIER) {
+            modified.set(target.getIndex());
+        }
+    }
+
+    private List<int[]> findInvariants(Loop loop, BitSet initialized, BitSet modified) {
+        final List<int[]> invariants = new ArrayList<>();
+        final List<Operand> stack = new ArrayList<>();
+
+        for (int i = loop.header + 2; i < loop.backEdge; i++) {
+            final Lexem symbol = rpn.get(i);
+            final Lexem next = rpn.get(i + 1);
+
+            if (isMark(symbol) && (isLabelDefinition(next) || isJump(next))) {
+                if (next.getName().equals("if")) {
+                    addInvariant(invariants, pop(stack), i);
+                }
+                stack.clear();
+                i++;
+                continue;
+            }
+
+            switch (symbol.getToken()) {
+                case CONSTANT:
+                    stack.add(new Operand(i, isNumberConstant(symbol), false));
+                    continue;
+                case IDENTIFIER:
+                    stack.add(new Operand(i, isInvariantNumber(symbol, initialized, modified), false));
+                    continue;
+            }
+
+            switch (symbol.getName()) {
+                case "@": {
+                    final Operand operand = pop(stack);
+                    if (operand == null) {
+                        stack.clear();
+                        break;
+                    }
+                    stack.add(new Operand(operand.start, operand.invariant, true));
+                    break;
+                }
+                case "+":
+                case "-":
+                case "*":
+                case "/":
+                case "^":
+                case "==":
+                case "!=":
+                case "<":
+                case ">":
+                case "<=":
+                case ">=": {
+                    final Operand right = pop(stack);
+                    final Operand left = pop(stack);
+                    if (left == null || right == null) {
+                        stack.clear();
+                        break;
+                    }
+
+                    final boolean arithmetic = symbol.getName().length() == 1 && "+-*/^".contains(symbol.getName());
+                    if (arithmetic && left.invariant && right.invariant) {
+                        stack.add(new Operand(left.start, true, true));
+                        break;
+                    }
+
+                    addInvariant(invariants, left, right.start);
+                    addInvariant(invariants, right, i);
+                    stack.add(new Operand(left.start, false, true));
+                    break;
+                }
+                case "=": {
+                    addInvariant(invariants, pop(stack), i);
+                    stack.clear();
+                    break;
+                }
+                case "out": {
+                    addInvariant(invariants, pop(stack), i);
+                    stack.clear();
+                    break;
+                }
+                case "var":
+                case "val":
+                    break;
+                default:
+                    stack.clear();
+            }
+        }
+
+        return invariants;
+    }
+
+    private static void addInvariant(List<int[]> invariants, Operand operand, int end) {
+        if (operand != null && operand.invariant && operand.computed) {
+            invariants.add(new int[]{operand.start, end});
+        }
+    }
+
+    private boolean isNumberConstant(Lexem symbol) {
+        return symbol.getIndex() >= 0 && symbol.getIndex() < constants.size()
+                && constants.get(symbol.getIndex()).getType() == Pair.Type.NUMBER;
+    }
+
+    private boolean isInvariantNumber(Lexem symbol, BitSet initialized, BitSet modified) {
+        final int index = symbol.getIndex();
+        return index >= 0 && index < identifiers.size() && identifiers.get(index).getType() == Pair.Type.NUMBER
+                && initialized.get(index) && !modified.get(index);
+    }
+
+    private Lexem createTemporary(int rowNumber) {
+        final int index = identifiers.size();
+        final String name = TEMPORARY_PREFIX + index;
+        identifiers.add(new Pair(name, Pair.Type.NUMBER, Pair.DEF, true, index));
+        return new Lexem(rowNumber, name, Token.IDENTIFIER, index);
+    }
+
+    private static <T> T pop(List<T> stack) {
+        return stack.isEmpty() ? null : stack.remove(stack.size() - 1);
+    }
+
+    private static class Loop {
+
+        private final int header;
+        private int backEdge;
+
+        private Loop(int header, int backEdge) {
+            this.header = header;
+            this.backEdge = backEdge;
+        }
+
+    }
+
+    private static class Operand {
+
+        private final int start;
+        private final boolean invariant;
+        private final boolean computed;
+
+        private Operand(int start, boolean invariant, boolean computed) {
+            this.start = start;
+            this.invariant = invariant;
+            this.computed = computed;
+        }
+
+    }
+
+}
@@ -0,0 +1,510 @@
+package com.vladhuk.l1compiler.optimization;
+
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.interpretation.ValueStack;
+import com.vladhuk.l1compiler.interpretation.Variables;
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+import com.vladhuk.l1compiler.lexical.Token;
+import com.vladhuk.l1compiler.tables.TableFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+public class RpnOptimizer {
+
+    private static final byte CONSTANT = 0;
+    private static final byte IDENTIFIER = 1;
+    private static final byte NUMBER = 2;
+    private static final byte VALUE = 3;
+
+    private final SymbolTable constants;
+    private final List<Pair> identifiers;
+    private final List<Lexem> source;
+
+    private final List<Lexem> rpn = new ArrayList<>();
+    private final List<Operand> stack = new ArrayList<>();
+
+    private final List<int[]> labels = new ArrayList<>();
+    private final Map<Integer, Integer> labelPositions = new HashMap<>();
+    private final Map<Integer, KnownVal> knownVals = new HashMap<>();
+    private final Set<Integer> redeclaredVals = new HashSet<>();
+
+    private RpnOptimizer(CompilationUnit unit) {
+        this.constants = unit.getConstants();
+        this.identifiers = unit.getIdentifiers();
+        this.source = unit.getRpn();
+    }
+
+    public static void optimize(CompilationUnit unit) {
+        final RpnOptimizer optimizer = new RpnOptimizer(unit);
+        optimizer.findJumps();
+        optimizer.rewrite();
+
+        List<Lexem> rpn = LoopInvariantHoister.hoist(optimizer.rpn, optimizer.constants, optimizer.identifiers);
+        rpn = JumpThreader.thread(rpn, optimizer.identifiers);
+        optimizer.pruneConstants(unit, rpn);
+    }
+
+    public static void optimize(Path tables, Path destination) throws IOException {
+        optimize(tables, destination, TableFormat.TEXT);
+    }
+
+    public static void optimize(Path tables, Path destination, TableFormat format) throws IOException {
+        final CompilationUnit unit = CompilationUnit.read(tables);
+        unit.setRpn(unit.getLexems());
+        optimize(unit);
+        unit.writeRpnTables(destination, format);
+    }
+
+    public static void optimize(File tables, File destination) throws IOException {
+        optimize(tables.toPath(), destination.toPath());
+    }
+
+    private void findJumps() {
+        for (int i = 0; i + 1 < source.size(); i++) {
+            final Lexem symbol = source.get(i);
+            final Lexem next = source.get(i + 1);
+
+            if (symbol.getToken() != Token.IDENTIFIER) {
+                continue;
+            }
+            if (isLabelDefinition(next)) {
+                labels.add(new int[]{i, symbol.getIndex()});
+                labelPositions.putIfAbsent(symbol.getIndex(), i);
+                i++;
+            } else if (isJump(next)) {
+                i++;
+            }
+        }
+    }
+
+    private int findReachBoundary(int position) {
+        final boolean[] bypassing = findReachableBypassing(position);
+        for (int[] label : labels) {
+            if (label[0] > position && bypassing[label[0]]) {
+                return label[0];
+            }
+        }
+        return source.size();
+    }
+
+    private boolean[] findReachableBypassing(int position) {
+        final boolean[] reachable = new boolean[source.size() + 1];
+        final List<Integer> pending = new ArrayList<>();
+        pending.add(0);
+
+        while (!pending.isEmpty()) {
+            final int i = pending.remove(pending.size() - 1);
+            if (i >= source.size() || i == position || reachable[i]) {
+                continue;
+            }
+            reachable[i] = true;
+
+            final Lexem symbol = source.get(i);
+            final Lexem next = i + 1 < source.size() ? source.get(i + 1) : null;
+
+            if (symbol.getToken() != Token.IDENTIFIER || next == null) {
+                pending.add(i + 1);
+            } else if (isLabelDefinition(next)) {
+                pending.add(i + 2);
+            } else if (isJump(next)) {
+                final Integer target = labelPositions.get(symbol.getIndex());
+                if (target != null) {
+                    pending.add(target);
+                }
+                if (next.getName().equals("if")) {
+                    pending.add(i + 2);
+                }
+            } else {
+                pending.add(i + 1);
+            }
+        }
+
+        return reachable;
+    }
+
+    private void rewrite() {
+        for (int i = 0; i < source.size(); i++) {
+            final Lexem symbol = source.get(i);
+            final Lexem next = i + 1 < source.size() ? source.get(i + 1) : null;
+
+            if (symbol.getToken() == Token.IDENTIFIER && next != null && (isLabelDefinition(next) || isJump(next))) {
+                if (next.getName().equals("if") && !stack.isEmpty()) {
+                    resolve(pop());
+                }
+                rpn.add(symbol);
+                rpn.add(next);
+                stack.clear();
+                i++;
+                continue;
+            }
+
+            switch (symbol.getToken()) {
+                case CONSTANT:
+                    stack.add(constantOperand(rpn.size(), symbol));
+                    rpn.add(symbol);
+                    continue;
+                case IDENTIFIER:
+                    stack.add(new Operand(rpn.size(), IDENTIFIER, symbol, i));
+                    rpn.add(symbol);
+                    continue;
+            }
+
+            switch (symbol.getName()) {
+                case "@":
+                    handleUnaryMinus(symbol);
+                    break;
+                case "var":
+                case "val":
+                    handleDef(symbol);
+                    break;
+                case "=":
+                    handleAssign(symbol, i);
+                    break;
+                case "out":
+                    if (!stack.isEmpty()) {
+                        resolve(pop());
+                    }
+                    rpn.add(symbol);
+                    stack.clear();
+                    break;
+                case "+":
+                case "-":
+                case "*":
+                case "/":
+                case "^":
+                case "==":
+                case "!=":
+                case "<":
+                case ">":
+                case "<=":
+                case ">=":
+                    handleBinaryOperator(symbol);
+                    break;
+                default:
+                    rpn.add(symbol);
+                    stack.clear();
+            }
+        }
+    }
+
+    private void handleUnaryMinus(Lexem symbol) {
+        final Operand operand = pop();
+        if (operand == null) {
+            rpn.add(symbol);
+            return;
+        }
+
+        resolve(operand);
+
+        if (operand.kind == CONSTANT && operand.tag == ValueStack.NUMBER) {
+            truncate(operand.start);
+            pushConstant(numberConstant(-Double.longBitsToDouble(operand.value), operand.lexem.getRowNumber()));
+            return;
+        }
+
+        rpn.add(symbol);
+        stack.add(new Operand(operand.start, NUMBER, null, -1));
+    }
+
+    private void handleDef(Lexem symbol) {
+        rpn.add(symbol);
+
+        if (!stack.isEmpty() && peek().kind == IDENTIFIER) {
+            final Operand target = peek();
+            target.val = symbol.getName().equals("val");
+            if (target.val && knownVals.containsKey(target.lexem.getIndex())) {
+                redeclaredVals.add(target.lexem.getIndex());
+            }
+        }
+    }
+
+    private void handleAssign(Lexem symbol, int position) {
+        final Operand value = pop();
+        final Operand target = pop();
+        rpn.add(symbol);
+        stack.clear();
+
+        if (value == null || target == null) {
+            return;
+        }
+
+        resolve(value);
+
+        if (target.kind == IDENTIFIER && target.val && value.kind == CONSTANT) {
+            final int index = target.lexem.getIndex();
+            final Pair identifier = identifiers.get(index);
+
+            if (Variables.tagOf(identifier.getType()) == value.tag && identifier.getType() != Pair.Type.UNDEF
+                    && !redeclaredVals.contains(index)) {
+                if (knownVals.containsKey(index)) {
+                    redeclaredVals.add(index);
+                    knownVals.remove(index);
+                } else {
+                    knownVals.put(index, new KnownVal(value.lexem, position, findReachBoundary(position)));
+                }
+            }
+        }
+    }
+
+    private void handleBinaryOperator(Lexem symbol) {
+        final Operand right = pop();
+        final Operand left = pop();
+
+        if (left == null || right == null) {
+            rpn.add(symbol);
+            stack.clear();
+            return;
+        }
+
+        resolve(left);
+        resolve(right);
+
+        if (left.kind == CONSTANT && right.kind == CONSTANT) {
+            final Lexem folded = fold(symbol.getName(), left, right);
+            if (folded != null) {
+                truncate(left.start);
+                pushConstant(folded);
+                return;
+            }
+        }
+
+        if (isIdentity(symbol.getName(), left, right)) {
+            truncate(right.start);
+            stack.add(left);
+            return;
+        }
+        if (symbol.getName().equals("*") && right.kind == NUMBER && isNumber(left, 1)) {
+            rpn.subList(left.start, right.start).clear();
+            right.start = left.start;
+            stack.add(right);
+            return;
+        }
+
+        rpn.add(symbol);
+        stack.add(new Operand(left.start, isArithmetic(symbol.getName()) ? NUMBER : VALUE, null, -1));
+    }
+
+    private boolean isIdentity(String operator, Operand left, Operand right) {
+        if (left.kind != NUMBER) {
+            return false;
+        }
+
+        switch (operator) {
+            case "*":
+            case "/":
+            case "^":
+                return isNumber(right, 1);
+            case "-":
+                return isNumber(right, 0);
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isNumber(Operand operand, double number) {
+        return operand.kind == CONSTANT && operand.tag == ValueStack.NUMBER
+                && operand.value == Double.doubleToRawLongBits(number);
+    }
+
+    private static boolean isArithmetic(String operator) {
+        return operator.length() == 1 && "+-*/^".contains(operator);
+    }
+
+    private Lexem fold(String operator, Operand left, Operand right) {
+        final int rowNumber = left.lexem.getRowNumber();
+
+        if (operator.equals("==") || operator.equals("!=")) {
+            if (left.tag != right.tag) {
+                return null;
+            }
+
+            final boolean equals;
+            switch (left.tag) {
+                case ValueStack.NUMBER:
+                    equals = Double.doubleToLongBits(Double.longBitsToDouble(left.value))
+                            == Double.doubleToLongBits(Double.longBitsToDouble(right.value));
+                    break;
+                case ValueStack.STRING:
+                    equals = left.text.equals(right.text);
+                    break;
+                default:
+                    equals = left.value == right.value;
+            }
+            return booleanConstant(equals == operator.equals("=="), rowNumber);
+        }
+
+        if (left.tag != ValueStack.NUMBER || right.tag != ValueStack.NUMBER) {
+            return null;
+        }
+
+        final double a = Double.longBitsToDouble(left.value);
+        final double b = Double.longBitsToDouble(right.value);
+
+        switch (operator) {
+            case "+": return numberConstant(a + b, rowNumber);
+            case "-": return numberConstant(a - b, rowNumber);
+            case "*": return numberConstant(a * b, rowNumber);
+            case "/": return numberConstant(a / b, rowNumber);
+            case "^": return numberConstant(Math.pow(a, b), rowNumber);
+            case "<": return booleanConstant(a < b, rowNumber);
+            case ">": return booleanConstant(a > b, rowNumber);
+            case "<=": return booleanConstant(a <= b, rowNumber);
+            case ">=": return booleanConstant(a >= b, rowNumber);
+            default: return null;
+        }
+    }
+
+    private Lexem numberConstant(double value, int rowNumber) {
+        return constant(Double.toString(value), Pair.Type.NUMBER, rowNumber);
+    }
+
+    private Lexem booleanConstant(boolean value, int rowNumber) {
+        return constant(String.valueOf(value), Pair.Type.BOOLEAN, rowNumber);
+    }
+
+    private Lexem constant(String name, Pair.Type type, int rowNumber) {
+        final Pair pair = constants.intern(name);
+        if (pair.getType() == Pair.Type.UNDEF) {
+            pair.setType(type);
+            pair.setValue(name);
+        }
+        return new Lexem(rowNumber, name, Token.CONSTANT, pair.getIndex());
+    }
+
+    private void resolve(Operand operand) {
+        if (operand.kind != IDENTIFIER) {
+            return;
+        }
+
+        final KnownVal known = knownVals.get(operand.lexem.getIndex());
+        if (known == null || operand.position <= known.from || operand.position >= known.to
+                || redeclaredVals.contains(operand.lexem.getIndex())) {
+            return;
+        }
+
+        final Lexem constant = new Lexem(known.constant);
+        constant.setRowNumber(operand.lexem.getRowNumber());
+        rpn.set(operand.start, constant);
+
+        final Operand resolved = constantOperand(operand.start, constant);
+        operand.kind = CONSTANT;
+        operand.lexem = constant;
+        operand.tag = resolved.tag;
+        operand.value = resolved.value;
+        operand.text = resolved.text;
+    }
+
+    private Operand constantOperand(int start, Lexem lexem) {
+        final Pair pair = constants.get(lexem.getIndex());
+        final Operand operand = new Operand(start, CONSTANT, lexem, -1);
+        operand.tag = Variables.tagOf(pair.getType());
+        operand.value = Variables.decodeValue(pair.getType(), pair.getValue());
+        operand.text = Variables.decodeText(pair.getType(), pair.getValue());
+        return operand;
+    }
+
+    private void pushConstant(Lexem constant) {
+        stack.add(constantOperand(rpn.size(), constant));
+        rpn.add(constant);
+    }
+
+    private void truncate(int size) {
+        rpn.subList(size, rpn.size()).clear();
+    }
+
+    private Operand pop() {
+        return stack.isEmpty() ? null : stack.remove(stack.size() - 1);
+    }
+
+    private Operand peek() {
+        return stack.get(stack.size() - 1);
+    }
+
+    private void pruneConstants(CompilationUnit unit, List<Lexem> rpn) {
+        final int[] newIndexes = new int[constants.size()];
+        Arrays.fill(newIndexes, -1);
+
+        for (Lexem symbol : rpn) {
+            if (symbol.getToken() == Token.CONSTANT) {
+                newIndexes[symbol.getIndex()] = 0;
+            }
+        }
+
+        final SymbolTable pruned = new SymbolTable();
+        for (int i = 0; i < newIndexes.length; i++) {
+            if (newIndexes[i] != -1) {
+                newIndexes[i] = pruned.size();
+                final Pair constant = new Pair(constants.get(i));
+                constant.setIndex(pruned.size());
+                pruned.add(constant);
+            }
+        }
+
+        for (int i = 0; i < rpn.size(); i++) {
+            final Lexem symbol = rpn.get(i);
+            if (symbol.getToken() == Token.CONSTANT) {
+                final Lexem reindexed = new Lexem(symbol);
+                reindexed.setIndex(newIndexes[symbol.getIndex()]);
+                rpn.set(i, reindexed);
+            }
+        }
+
+        unit.setRpn(rpn);
+        unit.setConstants(pruned);
+    }
+
+    private static boolean isLabelDefinition(Lexem symbol) {
+        return symbol.getToken() == Token.PUNCT && symbol.getName().equals(":");
+    }
+
+    private static boolean isJump(Lexem symbol) {
+        return symbol.getName().equals("goto") || symbol.getName().equals("if");
+    }
+
+    private static class Operand {
+
+        private int start;
+        private byte kind;
+        private Lexem lexem;
+        private final int position;
+        private boolean val;
+        private byte tag;
+        private long value;
+        private String text;
+
+        private Operand(int start, byte kind, Lexem lexem, int position) {
+            this.start = start;
+            this.kind = kind;
+            this.lexem = lexem;
+            this.position = position;
+        }
+
+    }
+
+    private static class KnownVal {
+
+        private final Lexem constant;
+        private final int from;
+        private final int to;
+
+        private KnownVal(Lexem constant, int from, int to) {
+            this.constant = constant;
+            this.from = from;
+            this.to = to;
+        }
+
+    }
+
+}
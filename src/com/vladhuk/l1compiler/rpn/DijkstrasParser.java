@@ -1,94 +1,154 @@
 package com.vladhuk.l1compiler.rpn;
 
 import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Token;
+import com.vladhuk.l1compiler.lexical.TokenStream;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 
 public class DijkstrasParser {
 
-    private DijkstrasParser() {
-    }
+    private static final String UNARY_MINUS = "@";
 
-    public static List<Lexem> convertInfixToRpn(List<Lexem> symbols) {
-        final List<Lexem> symbolsCopy = symbols.stream().map(Lexem::new).collect(Collectors.toList());
-        final LinkedList<Lexem> correctSymbols = new LinkedList<>(replaceUnaryMinuses(symbolsCopy));
+    private Operator[] operators = new Operator[16];
+    private int[] positions = new int[16];
+    private int size;
 
-        final LinkedList<Lexem> rpnStack = new LinkedList<>();
-        final LinkedList<Lexem> operatorStack = new LinkedList<>();
+    private List<Lexem> lexems;
+    private List<Lexem> lexemsRpn;
+    private TokenStream.Slice slice;
+    private TokenStream streamRpn;
+    private int unaryMinusId;
 
-        while (!correctSymbols.isEmpty()) {
-            final Lexem currentSymbol = correctSymbols.pop();
+    public static List<Lexem> convertInfixToRpn(List<Lexem> symbols) {
+        return new DijkstrasParser().convert(symbols);
+    }
 
-            if (isOperator(currentSymbol)) {
-                if (currentSymbol.getName().equals("(")) {
-                    operatorStack.push(currentSymbol);
-                } else {
-                    while (!operatorStack.isEmpty() && getPriority(operatorStack.peek()) >= getPriority(currentSymbol)) {
-                        rpnStack.addLast(operatorStack.pop());
-                    }
-                    if (currentSymbol.getName().equals(")")) {
-                        operatorStack.pop();
-                    } else {
-                        operatorStack.push(currentSymbol);
-                    }
-                }
-            } else {
-                rpnStack.addLast(currentSymbol);
-            }
+    public List<Lexem> convert(List<Lexem> symbols) {
+        lexems = symbols;
+        lexemsRpn = new ArrayList<>(symbols.size());
+        try {
+            convert(symbols.size());
+            return lexemsRpn;
+        } finally {
+            lexems = null;
+            lexemsRpn = null;
         }
+    }
 
-        while (!operatorStack.isEmpty()) {
-            rpnStack.addLast(operatorStack.pop());
+    public TokenStream.Slice convert(TokenStream.Slice symbols, TokenStream rpn) {
+        final int from = rpn.size();
+        slice = symbols;
+        streamRpn = rpn;
+        unaryMinusId = rpn.intern(UNARY_MINUS);
+        try {
+            convert(symbols.size());
+            return rpn.slice(from, rpn.size());
+        } finally {
+            slice = null;
+            streamRpn = null;
         }
-
-        return rpnStack;
     }
 
-    private static List<Lexem> replaceUnaryMinuses(List<Lexem> symbols) {
-        if (symbols.size() < 2) {
-            return symbols;
-        }
+    private void convert(int length) {
+        size = 0;
+        boolean expectOperand = true;
+
+        for (int i = 0; i < length; i++) {
+            Operator operator = Operator.of(tokenAt(i), nameAt(i));
+
+            if (operator == null) {
+                emit(i);
+                expectOperand = false;
+                continue;
+            }
 
-        final List<Lexem> symbolsCopy = symbols.stream().map(Lexem::new).collect(Collectors.toList());
+            if (expectOperand && operator == Operator.ADDITIVE) {
+                if (nameAt(i).equals("+")) {
+                    continue;
+                }
+                operator = Operator.UNARY_MINUS;
+            }
+
+            switch (operator) {
+                case OPEN_BRACKET:
+                    push(operator, i);
+                    expectOperand = true;
+                    break;
+                case CLOSE_BRACKET:
+                    popWhile(Operator.CLOSE_BRACKET);
+                    if (size == 0) {
+                        throw new RuntimeException(rowAt(i) + ": Unexpected ')'.");
+                    }
+                    size--;
+                    expectOperand = false;
+                    break;
+                default:
+                    if (!operator.isPrefix()) {
+                        popWhile(operator);
+                    }
+                    push(operator, i);
+                    expectOperand = true;
+            }
+        }
 
-        for (int i = 0; symbolsCopy.get(i).getName().equals("-"); i++) {
-            symbolsCopy.get(i).setName("@");
+        popWhile(Operator.CLOSE_BRACKET);
+        if (size != 0) {
+            throw new RuntimeException(rowAt(positions[size - 1]) + ": Expected ')'.");
         }
+    }
 
-        for (int i = 0; i < symbolsCopy.size() - 1; i++) {
-            if (isOperator(symbolsCopy.get(i)) && symbolsCopy.get(i + 1).getName().equals("-")) {
-                symbolsCopy.get(i + 1).setName("@");
+    private void popWhile(Operator operator) {
+        while (size > 0 && operators[size - 1] != Operator.OPEN_BRACKET && operators[size - 1].popsBefore(operator)) {
+            size--;
+            if (operators[size] == Operator.UNARY_MINUS) {
+                emitUnaryMinus(positions[size]);
+            } else {
+                emit(positions[size]);
             }
         }
+    }
 
-        return symbolsCopy;
+    private void push(Operator operator, int position) {
+        if (size == operators.length) {
+            operators = Arrays.copyOf(operators, size * 2);
+            positions = Arrays.copyOf(positions, size * 2);
+        }
+        operators[size] = operator;
+        positions[size] = position;
+        size++;
     }
 
-    private static boolean isArithmOperator(Lexem symbol) {
-        return symbol.getName().matches("[()+\\-@*/^]");
+    private Token tokenAt(int i) {
+        return lexems != null ? lexems.get(i).getToken() : slice.getToken(i);
     }
 
-    private static boolean isOperator(Lexem symbol) {
-        return isArithmOperator(symbol) || symbol.getName().matches("[<>=]|==|!=|<=|>=|val|var");
+    private String nameAt(int i) {
+        return lexems != null ? lexems.get(i).getName() : slice.getName(i);
     }
 
-    private static Short getPriority(Lexem symbol) {
-        final String string = symbol.getName();
+    private int rowAt(int i) {
+        return lexems != null ? lexems.get(i).getRowNumber() : slice.getRowNumber(i);
+    }
 
-        if (string.matches("\\(")) return 0;
-        if (string.matches("\\)")) return 1;
-        if (string.matches("=")) return 2;
-        if (string.matches("[<>]|==|!=|<=|>=")) return 3;
-        if (string.matches("[+\\-]")) return 4;
-        if (string.matches("[*/]")) return 5;
-        if (string.matches("\\^")) return 6;
-        if (string.matches("@")) return 7;
-        if (string.matches("val|var")) return 8;
+    private void emit(int i) {
+        if (lexems != null) {
+            lexemsRpn.add(lexems.get(i));
+        } else {
+            streamRpn.add(slice.getStream(), slice.getFrom() + i);
+        }
+    }
 
-        throw new RuntimeException("Unknown symbol");
+    private void emitUnaryMinus(int i) {
+        if (lexems != null) {
+            final Lexem minus = lexems.get(i);
+            lexemsRpn.add(new Lexem(minus.getRowNumber(), UNARY_MINUS, minus.getToken(), minus.getIndex()));
+        } else {
+            streamRpn.add(slice.getRowNumber(i), slice.getToken(i), unaryMinusId, slice.getIndex(i));
+        }
     }
 
 }
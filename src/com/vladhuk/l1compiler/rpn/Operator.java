@@ -0,0 +1,61 @@
+package com.vladhuk.l1compiler.rpn;
+
+import com.vladhuk.l1compiler.lexical.Token;
+
+public enum Operator {
+    OPEN_BRACKET(0, false, false),
+    CLOSE_BRACKET(1, false, false),
+    ASSIGN(2, false, false),
+    RELATION(3, false, false),
+    ADDITIVE(4, false, false),
+    MULTIPLICATIVE(5, false, false),
+    POWER(6, true, false),
+    UNARY_MINUS(7, true, true),
+    DECLARATION(8, true, true);
+
+    private final int priority;
+    private final boolean rightAssociative;
+    private final boolean prefix;
+
+    Operator(int priority, boolean rightAssociative, boolean prefix) {
+        this.priority = priority;
+        this.rightAssociative = rightAssociative;
+        this.prefix = prefix;
+    }
+
+    public static Operator of(Token token, String name) {
+        switch (token) {
+            case BRACKET_OP:
+                return name.equals("(") ? OPEN_BRACKET : CLOSE_BRACKET;
+            case ASSIGN:
+                return ASSIGN;
+            case REL_OP:
+                return RELATION;
+            case ADD_OP:
+                return ADDITIVE;
+            case MULT_OP:
+                return MULTIPLICATIVE;
+            case POW_OP:
+                return POWER;
+            case DECLARATION:
+                return DECLARATION;
+            default:
+                return null;
+        }
+    }
+
+    public boolean popsBefore(Operator operator) {
+        return operator.rightAssociative ? priority > operator.priority : priority >= operator.priority;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+    public boolean isRightAssociative() {
+        return rightAssociative;
+    }
+    public boolean isPrefix() {
+        return prefix;
+    }
+
+}
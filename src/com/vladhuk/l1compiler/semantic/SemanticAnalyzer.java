@@ -0,0 +1,327 @@
+package com.vladhuk.l1compiler.semantic;
+
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.interpretation.Bytecode;
+import com.vladhuk.l1compiler.interpretation.Opcode;
+import com.vladhuk.l1compiler.interpretation.ValueStack;
+import com.vladhuk.l1compiler.interpretation.Variables;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class SemanticAnalyzer {
+
+    private static final byte UNKNOWN = -1;
+
+    private final Bytecode bytecode;
+    private final SymbolTable constants;
+    private final List<Pair> identifiers;
+    private final List<String> errors = new ArrayList<>();
+
+    private byte[] tags = new byte[16];
+    private int[] indices = new int[16];
+    private int[] rows = new int[16];
+    private int size;
+    private boolean reachable = true;
+
+    private SemanticAnalyzer(Bytecode bytecode, SymbolTable constants, List<Pair> identifiers) {
+        this.bytecode = bytecode;
+        this.constants = constants;
+        this.identifiers = identifiers;
+    }
+
+    public static boolean analyze(CompilationUnit unit) {
+        return analyze(unit, System.err);
+    }
+
+    public static boolean analyze(CompilationUnit unit, PrintStream err) {
+        List<String> errors;
+        try {
+            errors = annotate(Bytecode.compile(unit.getRpn()), unit.getConstants(), unit.getIdentifiers());
+        } catch (RuntimeException e) {
+            errors = List.of(e.getMessage());
+        }
+
+        if (!errors.isEmpty()) {
+            err.println("Types are wrong!");
+            errors.forEach(err::println);
+        }
+
+        return errors.isEmpty();
+    }
+
+    public static List<String> annotate(Bytecode bytecode, SymbolTable constants, List<Pair> identifiers) {
+        final SemanticAnalyzer analyzer = new SemanticAnalyzer(bytecode, constants, identifiers);
+        analyzer.annotate();
+        return analyzer.errors;
+    }
+
+    private void annotate() {
+        final boolean[] jumpTargets = new boolean[bytecode.size() + 1];
+        for (int pc = 0; pc < bytecode.size(); pc++) {
+            if (bytecode.getTarget(pc) != Bytecode.NO_TARGET) {
+                jumpTargets[bytecode.getTarget(pc)] = true;
+            }
+        }
+
+        for (int pc = 0; pc < bytecode.size(); pc++) {
+            if (jumpTargets[pc]) {
+                size = 0;
+                reachable = true;
+            }
+
+            switch (bytecode.getOpcode(pc)) {
+                case PUSH_CONSTANT:
+                    push(constantType(bytecode.getIndex(pc)), -1, bytecode.getRowNumber(pc));
+                    break;
+                case PUSH_IDENTIFIER:
+                    push(ValueStack.IDENTIFIER, bytecode.getIndex(pc), bytecode.getRowNumber(pc));
+                    break;
+                case NEG:
+                    annotateUnaryMinus(pc);
+                    break;
+                case DEF_VAR:
+                case DEF_VAL:
+                    annotateDef();
+                    break;
+                case GOTO:
+                    size = 0;
+                    reachable = false;
+                    break;
+                case IF:
+                    annotateIf(pc);
+                    size = 0;
+                    break;
+                case IN:
+                    pop();
+                    break;
+                case OUT:
+                    valueType(pop());
+                    break;
+                case EQ:
+                    annotateEquality(pc, Opcode.EQ_NUM, Opcode.EQ_BOOL, Opcode.EQ_STR);
+                    break;
+                case NE:
+                    annotateEquality(pc, Opcode.NE_NUM, Opcode.NE_BOOL, Opcode.NE_STR);
+                    break;
+                case GE:
+                    annotateNumberOperation(pc, Opcode.GE_NUM, ValueStack.BOOLEAN);
+                    break;
+                case LE:
+                    annotateNumberOperation(pc, Opcode.LE_NUM, ValueStack.BOOLEAN);
+                    break;
+                case GT:
+                    annotateNumberOperation(pc, Opcode.GT_NUM, ValueStack.BOOLEAN);
+                    break;
+                case LT:
+                    annotateNumberOperation(pc, Opcode.LT_NUM, ValueStack.BOOLEAN);
+                    break;
+                case ADD:
+                    annotateNumberOperation(pc, Opcode.ADD_NUM, ValueStack.NUMBER);
+                    break;
+                case SUB:
+                    annotateNumberOperation(pc, Opcode.SUB_NUM, ValueStack.NUMBER);
+                    break;
+                case MUL:
+                    annotateNumberOperation(pc, Opcode.MUL_NUM, ValueStack.NUMBER);
+                    break;
+                case DIV:
+                    annotateNumberOperation(pc, Opcode.DIV_NUM, ValueStack.NUMBER);
+                    break;
+                case POW:
+                    annotateNumberOperation(pc, Opcode.POW_NUM, ValueStack.NUMBER);
+                    break;
+                case ASSIGN:
+                    annotateAssign(pc);
+                    break;
+                default:
+                    throw new IllegalStateException(bytecode.getRowNumber(pc) + ": Instruction '"
+                            + bytecode.getName(pc) + "' is already annotated.");
+            }
+        }
+    }
+
+    private void annotateUnaryMinus(int pc) {
+        final int slot = pop();
+        final byte type = valueType(slot);
+
+        if (type == ValueStack.NUMBER) {
+            bytecode.setOpcode(pc, Opcode.NEG_NUM);
+        } else if (type != UNKNOWN) {
+            error(rows[slot], "Required type 'number'.");
+        }
+
+        push(ValueStack.NUMBER, -1, rows[slot]);
+    }
+
+    private void annotateDef() {
+        final int slot = size - 1;
+
+        if (slot >= 0 && tags[slot] == ValueStack.IDENTIFIER && identifierType(indices[slot]) == Pair.Type.MARK) {
+            error(rows[slot], "Already exists mark with this name.");
+        }
+    }
+
+    private void annotateIf(int pc) {
+        final int slot = pop();
+        final byte type = valueType(slot);
+
+        if (type == ValueStack.BOOLEAN) {
+            bytecode.setOpcode(pc, Opcode.IF_BOOL);
+        } else if (type != UNKNOWN) {
+            error(rows[slot], "Required type 'boolean' in codition.");
+        }
+    }
+
+    private void annotateNumberOperation(int pc, Opcode opcode, byte resultType) {
+        final int last = pop();
+        final int preLast = pop();
+        final byte type = operandsType(preLast, last);
+
+        if (type == ValueStack.NUMBER) {
+            bytecode.setOpcode(pc, opcode);
+        } else if (type != UNKNOWN) {
+            error(rows[preLast], "Required type 'number'.");
+        }
+
+        push(resultType, -1, rows[preLast]);
+    }
+
+    private void annotateEquality(int pc, Opcode numberOpcode, Opcode booleanOpcode, Opcode stringOpcode) {
+        final int last = pop();
+        final int preLast = pop();
+
+        switch (operandsType(preLast, last)) {
+            case ValueStack.NUMBER:
+                bytecode.setOpcode(pc, numberOpcode);
+                break;
+            case ValueStack.BOOLEAN:
+                bytecode.setOpcode(pc, booleanOpcode);
+                break;
+            case ValueStack.STRING:
+                bytecode.setOpcode(pc, stringOpcode);
+                break;
+        }
+
+        push(ValueStack.BOOLEAN, -1, rows[preLast]);
+    }
+
+    private void annotateAssign(int pc) {
+        final int last = pop();
+        final int preLast = size - 1;
+        final byte type = valueType(last);
+
+        if (preLast < 0 || tags[preLast] != ValueStack.IDENTIFIER || type == UNKNOWN) {
+            return;
+        }
+
+        final Pair.Type targetType = identifierType(indices[preLast]);
+        if (targetType != Pair.Type.NUMBER && targetType != Pair.Type.BOOLEAN && targetType != Pair.Type.STRING) {
+            return;
+        }
+
+        if (Variables.tagOf(targetType) != type) {
+            error(rows[preLast], "Can not assign type " + Variables.typeOf(type) + " to type " + targetType);
+            return;
+        }
+
+        switch (type) {
+            case ValueStack.NUMBER:
+                bytecode.setOpcode(pc, Opcode.ASSIGN_NUM);
+                break;
+            case ValueStack.BOOLEAN:
+                bytecode.setOpcode(pc, Opcode.ASSIGN_BOOL);
+                break;
+            case ValueStack.STRING:
+                bytecode.setOpcode(pc, Opcode.ASSIGN_STR);
+                break;
+        }
+    }
+
+    private byte operandsType(int preLast, int last) {
+        final byte preLastType = valueType(preLast);
+        final byte lastType = valueType(last);
+
+        if (preLastType == UNKNOWN || lastType == UNKNOWN) {
+            return UNKNOWN;
+        }
+        if (preLastType != lastType) {
+            error(rows[preLast], "Can not handle operation with different types.");
+            return UNKNOWN;
+        }
+
+        return preLastType;
+    }
+
+    private byte valueType(int slot) {
+        if (tags[slot] != ValueStack.IDENTIFIER) {
+            return tags[slot];
+        }
+
+        final Pair.Type type = identifierType(indices[slot]);
+        if (type == null) {
+            return UNKNOWN;
+        }
+
+        switch (type) {
+            case NUMBER:
+            case BOOLEAN:
+            case STRING:
+                return Variables.tagOf(type);
+            case UNDEF:
+                error(rows[slot], "Identifier is not defined.");
+                return UNKNOWN;
+            case MARK:
+                error(rows[slot], "Can not get value of mark.");
+                return UNKNOWN;
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    private Pair.Type identifierType(int index) {
+        return index >= 0 && index < identifiers.size() ? identifiers.get(index).getType() : null;
+    }
+
+    private byte constantType(int index) {
+        if (index < 0 || index >= constants.size()) {
+            return UNKNOWN;
+        }
+
+        final Pair.Type type = constants.get(index).getType();
+        return type == Pair.Type.NUMBER || type == Pair.Type.BOOLEAN || type == Pair.Type.STRING
+                ? Variables.tagOf(type)
+                : UNKNOWN;
+    }
+
+    private void error(int row, String message) {
+        if (reachable) {
+            errors.add(row + ": " + message);
+        }
+    }
+
+    private void push(byte tag, int index, int row) {
+        if (size == tags.length) {
+            tags = Arrays.copyOf(tags, size * 2);
+            indices = Arrays.copyOf(indices, size * 2);
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        tags[size] = tag;
+        indices[size] = index;
+        rows[size] = row;
+        size++;
+    }
+
+    private int pop() {
+        if (size == 0) {
+            push(UNKNOWN, -1, -1);
+        }
+        return --size;
+    }
+
+}
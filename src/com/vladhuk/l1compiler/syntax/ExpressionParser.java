@@ -0,0 +1,219 @@
+package com.vladhuk.l1compiler.syntax;
+
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.Token;
+import com.vladhuk.l1compiler.rpn.Operator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.vladhuk.l1compiler.lexical.Token.*;
+
+
+public class ExpressionParser {
+
+    private static final String UNARY_MINUS = "@";
+
+    private final List<Lexem> lexems;
+    private final int end;
+    private final List<Lexem> rpn = new ArrayList<>();
+    private Pair.Type type;
+    private int position;
+
+    public ExpressionParser(List<Lexem> lexems) {
+        this(lexems, 0, lexems.size());
+    }
+
+    public ExpressionParser(List<Lexem> lexems, int from, int to) {
+        this.lexems = lexems;
+        this.position = from;
+        this.end = to;
+    }
+
+    public List<Lexem> getRpn() {
+        return rpn;
+    }
+
+    public Pair.Type getType() {
+        return type;
+    }
+
+    public boolean isFinished() {
+        return position == end;
+    }
+
+    private Lexem peek() {
+        return position < end ? lexems.get(position) : null;
+    }
+
+    private boolean peekToken(Token token) {
+        return position < end && lexems.get(position).getToken() == token;
+    }
+
+    private void reset(int from) {
+        position = from;
+        rpn.clear();
+    }
+
+    public boolean parseExpression() {
+        final int from = position;
+
+        if (parseArithmExpression() && isFinished()) {
+            type = isSingleIdentifier(from) ? Pair.Type.BOOLEAN : Pair.Type.NUMBER;
+            return true;
+        }
+        reset(from);
+        if (parseBoolExpression() && isFinished()) {
+            type = Pair.Type.BOOLEAN;
+            return true;
+        }
+        reset(from);
+        if (parseString() && isFinished()) {
+            type = Pair.Type.STRING;
+            return true;
+        }
+        reset(from);
+        type = null;
+        return false;
+    }
+
+    public boolean parseBoolExpression() {
+        final int from = position;
+
+        if (parseBoolean()) {
+            return true;
+        }
+
+        if (!parseArithmExpression()) {
+            return false;
+        }
+
+        if (!peekToken(REL_OP)) {
+            return isSingleIdentifier(from);
+        }
+
+        final Lexem relOp = lexems.get(position++);
+
+        if (!parseArithmExpression()) {
+            return false;
+        }
+
+        rpn.add(relOp);
+        return true;
+    }
+
+    private boolean isSingleIdentifier(int from) {
+        return position - from == 1 && lexems.get(from).getToken() == IDENTIFIER;
+    }
+
+    public boolean parseArithmExpression() {
+        final Lexem sign = peekToken(ADD_OP) ? lexems.get(position++) : null;
+
+        if (!parseFactor()) {
+            return false;
+        }
+
+        if (sign != null && sign.getName().equals("-")) {
+            rpn.add(new Lexem(sign.getRowNumber(), UNARY_MINUS, sign.getToken(), sign.getIndex()));
+        }
+
+        return parseOperators(Operator.ADDITIVE.getPriority());
+    }
+
+    private boolean parseOperand(int minPriority) {
+        return parseFactor() && parseOperators(minPriority);
+    }
+
+    private boolean parseOperators(int minPriority) {
+        while (true) {
+            final Operator operator = peekBinaryOperator();
+
+            if (operator == null || operator.getPriority() < minPriority) {
+                return true;
+            }
+
+            final Lexem symbol = lexems.get(position++);
+            final int rightPriority = operator.isRightAssociative() ? operator.getPriority() : operator.getPriority() + 1;
+
+            if (!parseOperand(rightPriority)) {
+                return false;
+            }
+
+            rpn.add(symbol);
+        }
+    }
+
+    private Operator peekBinaryOperator() {
+        final Lexem lexem = peek();
+
+        if (lexem == null) {
+            return null;
+        }
+
+        final Operator operator = Operator.of(lexem.getToken(), lexem.getName());
+        return operator == Operator.ADDITIVE || operator == Operator.MULTIPLICATIVE || operator == Operator.POWER
+                ? operator
+                : null;
+    }
+
+    public boolean parseFactor() {
+        final Lexem lexem = peek();
+
+        if (lexem == null) {
+            return false;
+        }
+
+        if (lexem.getToken() == IDENTIFIER || isUnsignedNumber(lexem)) {
+            rpn.add(lexem);
+            position++;
+            return true;
+        }
+
+        if (lexem.getName().equals("(")) {
+            position++;
+            if (!parseArithmExpression() || peek() == null || !peek().getName().equals(")")) {
+                return false;
+            }
+            position++;
+            return true;
+        }
+
+        return false;
+    }
+
+    public boolean parseBoolean() {
+        final Lexem lexem = peek();
+
+        if (lexem != null && lexem.getToken() == CONSTANT
+                && (lexem.getName().equals("true") || lexem.getName().equals("false"))) {
+            rpn.add(lexem);
+            position++;
+            return true;
+        }
+
+        return false;
+    }
+
+    public boolean parseString() {
+        final Lexem lexem = peek();
+
+        if (lexem != null && lexem.getToken() == CONSTANT && lexem.getName().startsWith("'")) {
+            rpn.add(lexem);
+            position++;
+            return true;
+        }
+
+        return false;
+    }
+
+    public static boolean isUnsignedNumber(Lexem lexem) {
+        if (lexem.getToken() != CONSTANT) {
+            return false;
+        }
+
+        final char first = lexem.getName().charAt(0);
+        return first >= '0' && first <= '9';
+    }
+
+}
@@ -2,14 +2,14 @@ package com.vladhuk.l1compiler.syntax;
 
 import com.vladhuk.l1compiler.lexical.Lexem;
 import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
 import com.vladhuk.l1compiler.lexical.Token;
-import com.vladhuk.l1compiler.rpn.DijkstrasParser;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 import static com.vladhuk.l1compiler.lexical.Token.*;
@@ -19,14 +19,28 @@ public class Grammar {
 
     private final List<String> errorStack = new LinkedList<>();
 
-    private List<Pair> identifiers;
-    private LinkedList<Lexem> rpn = new LinkedList<>();
+    private SymbolTable identifiers;
+    private final RpnBuffer rpn = new RpnBuffer();
+    private final List<Lexem> marks = new ArrayList<>();
+
+    private List<Lexem> source;
+    private int position;
 
     public void showError() {
-        System.err.println(errorStack.get(0));
+        showError(System.err);
+    }
+
+    public void showError(PrintStream err) {
+        if (!errorStack.isEmpty()) {
+            err.println(errorStack.get(0));
+        }
+    }
+
+    public String getError() {
+        return errorStack.isEmpty() ? null : errorStack.get(0);
     }
 
-    public void setIdentifiers(List<Pair> identifiers) {
+    public void setIdentifiers(SymbolTable identifiers) {
         this.identifiers = identifiers;
     }
 
@@ -34,6 +48,10 @@ public class Grammar {
         return rpn;
     }
 
+    public List<Lexem> getMarks() {
+        return marks;
+    }
+
     private void pushError(String terminalName, String description, List<Lexem> lexems) {
         final String lexemNames = lexems.stream()
                 .map(Lexem::getName)
@@ -42,19 +60,33 @@ public class Grammar {
         errorStack.add("Wrong " + terminalName + description + " on line " + lexems.get(0).getRowNumber() + ": " + lexemNames);
     }
 
-    private int findLastIndexBeforeFromEnd(List<Lexem> lexems, Predicate<List<Lexem>> predicate) {
-        final LinkedList<Lexem> end = new LinkedList<>(lexems);
-        int indexOfOp = -1;
-        for (int i = 0; i < lexems.size() - 1; i++) {
-            end.pollFirst();
+    private boolean isKeyword(Lexem lexem, Token token, String name) {
+        return lexem.getToken() == token && lexem.getName().equals(name);
+    }
 
-            if (predicate.test(end)) {
-                indexOfOp = i;
-                break;
+    private int indexOfKeyword(List<Lexem> lexems, String keyword) {
+        for (int i = 0; i < lexems.size(); i++) {
+            if (isKeyword(lexems.get(i), LOOP, keyword)) {
+                return i;
             }
         }
 
-        return indexOfOp;
+        return -1;
+    }
+
+    private boolean parse(List<Lexem> lexems, BooleanSupplier rule) {
+        final List<Lexem> previousSource = source;
+        final int previousPosition = position;
+
+        source = lexems;
+        position = 0;
+
+        try {
+            return rule.getAsBoolean() && position == source.size();
+        } finally {
+            source = previousSource;
+            position = previousPosition;
+        }
     }
 
     public boolean Program(List<Lexem> lexems) {
@@ -66,39 +98,155 @@ public class Grammar {
     }
 
     public boolean StatementList(List<Lexem> lexems) {
-        final List<List<Lexem>> splitBySameRowLexems = new ArrayList<>();
+        return parse(lexems, () -> parseStatementList(false));
+    }
 
-        splitBySameRowLexems.add(new ArrayList<>(Collections.singletonList(lexems.get(0))));
+    public int StatementAt(List<Lexem> lexems, int from) {
+        errorStack.clear();
 
-        Lexem lastAdded = lexems.get(0);
+        final List<Lexem> previousSource = source;
+        final int previousPosition = position;
 
-        for (Lexem lexem : lexems.subList(1, lexems.size())) {
-            if (lexem.getRowNumber() == lastAdded.getRowNumber()) {
-                splitBySameRowLexems.get(splitBySameRowLexems.size() - 1).add(lexem);
-            } else {
-                splitBySameRowLexems.add(new ArrayList<>(Collections.singletonList(lexem)));
-            }
-            lastAdded = lexem;
+        source = lexems;
+        position = from;
+
+        try {
+            return parseStatement() ? position : -1;
+        } finally {
+            source = previousSource;
+            position = previousPosition;
         }
+    }
+
+    private boolean parseStatementList(boolean loopBody) {
+        while (position < source.size()) {
+            if (loopBody && isKeyword(source.get(position), LOOP, "end")) {
+                return true;
+            }
 
-        final List<Lexem> multiplyRowStatement = new ArrayList<>();
-        for (int i = 0; i < splitBySameRowLexems.size(); i++) {
             errorStack.clear();
 
-            if (!Statement(splitBySameRowLexems.get(i))) {
+            if (!parseStatement()) {
+                return false;
+            }
+        }
 
-                for (; i < splitBySameRowLexems.size(); i++) {
-                    multiplyRowStatement.addAll(splitBySameRowLexems.get(i));
+        return true;
+    }
 
-                    if (Statement(multiplyRowStatement)) {
-                        multiplyRowStatement.clear();
-                        break;
-                    }
+    private boolean parseStatement() {
+        final Lexem first = source.get(position);
+
+        if (isKeyword(first, LOOP, "for") || isKeyword(first, LOOP, "while")) {
+            return parseLoop();
+        }
+        if (isKeyword(first, CONDITION, "if")) {
+            return parseCondition();
+        }
+
+        final int end = findStatementEnd(position);
+        final List<Lexem> statement = source.subList(position, end);
+        final int checkpoint = rpn.checkpoint();
+        position = end;
+
+        if (Statement(statement)) {
+            return true;
+        }
+
+        rpn.rollback(checkpoint);
+
+        if (errorStack.isEmpty()) {
+            pushError("statement", "", statement);
+        }
+        return false;
+    }
+
+    private int findStatementEnd(int from) {
+        int depth = 0;
+        int i = from;
+
+        for (; i < source.size(); i++) {
+            final Lexem lexem = source.get(i);
+
+            if (i > from) {
+                final Lexem previous = source.get(i - 1);
+
+                if (isKeyword(lexem, LOOP, "end")) {
+                    break;
                 }
+                if (lexem.getRowNumber() != previous.getRowNumber() && depth <= 0
+                        && !continuesOnNextRow(previous) && !continuesPreviousRow(lexem)) {
+                    break;
+                }
+            }
+
+            if (lexem.getName().equals("(")) {
+                depth++;
+            } else if (lexem.getName().equals(")")) {
+                depth--;
+            }
+        }
+
+        return i;
+    }
+
+    private boolean continuesOnNextRow(Lexem lexem) {
+        switch (lexem.getToken()) {
+            case ASSIGN:
+            case ADD_OP:
+            case MULT_OP:
+            case POW_OP:
+            case REL_OP:
+            case DECLARATION:
+            case JUMP:
+            case IO:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean continuesPreviousRow(Lexem lexem) {
+        switch (lexem.getToken()) {
+            case ASSIGN:
+            case PUNCT:
+            case TYPE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private int findHeaderEnd(int from, Token keywordToken, String keyword) {
+        for (int i = from + 1; i < source.size(); i++) {
+            final Lexem lexem = source.get(i);
+
+            if (isKeyword(lexem, keywordToken, keyword)) {
+                return i;
+            }
+
+            switch (lexem.getToken()) {
+                case LOOP:
+                    if (!lexem.getName().equals("to")) {
+                        return -1;
+                    }
+                    break;
+                case CONDITION:
+                case JUMP:
+                case IO:
+                    return -1;
             }
         }
 
-        return multiplyRowStatement.isEmpty();
+        return -1;
+    }
+
+    private List<Lexem> restOfRow(int from) {
+        int end = from + 1;
+        while (end < source.size() && source.get(end).getRowNumber() == source.get(from).getRowNumber()) {
+            end++;
+        }
+        return source.subList(from, end);
     }
 
     public boolean Statement(List<Lexem> lexems) {
@@ -139,29 +287,22 @@ public class Grammar {
                 ? lexems.size() >= 5 ? lexems.subList(5, lexems.size()) : null
                 : lexems.subList(3, lexems.size());
 
-        final boolean assigning = assign && (Expression(afterAssign) || Identifier(afterAssign));
+        final ExpressionParser expression = afterAssign != null ? new ExpressionParser(afterAssign) : null;
+        final boolean assigning = assign && expression != null && expression.parseExpression();
 
-        final List<Lexem> infixExp = new ArrayList<>();
-        infixExp.add(lexems.get(0));
-        infixExp.add(identifier);
+        final List<Lexem> declarationRpn = new ArrayList<>();
+        declarationRpn.add(identifier);
+        declarationRpn.add(lexems.get(0));
 
         if (assigning) {
-            infixExp.add(assignSymbol);
-            infixExp.addAll(afterAssign);
+            declarationRpn.addAll(expression.getRpn());
+            declarationRpn.add(assignSymbol);
         }
 
-        rpn.addAll(DijkstrasParser.convertInfixToRpn(infixExp));
-
         final Pair identifierPair = identifiers.get(identifier.getIndex());
 
         if (assigning && !typeDefinition) {
-            if (String(afterAssign)) {
-                identifierPair.setType(Pair.Type.STRING);
-            } else if (BoolExpression(afterAssign)) {
-                identifierPair.setType(Pair.Type.BOOLEAN);
-            } else {
-                identifierPair.setType(Pair.Type.NUMBER);
-            }
+            identifierPair.setType(expression.getType());
         } else if (typeDefinition) {
             final Lexem typeLexem = lexems.get(3);
             final Pair.Type type = typeLexem.getName().equals("string")
@@ -176,6 +317,7 @@ public class Grammar {
 
         if (val) {
             if (assigning) {
+                rpn.addAll(declarationRpn);
                 return true;
             } else {
                 pushError("declaration", "expected assigning in val declaration", lexems);
@@ -184,9 +326,8 @@ public class Grammar {
         }
 
         if (var) {
-            if (assigning) {
-                return true;
-            } else if (typeDefinition) {
+            if (assigning || typeDefinition) {
+                rpn.addAll(declarationRpn);
                 return true;
             } else {
                 pushError("declaration", "expected type when variable is not initialized", lexems);
@@ -201,159 +342,38 @@ public class Grammar {
         return lexems.size() == 1 && lexems.get(0).getToken() == IDENTIFIER;
     }
 
-    public boolean Expression(List<Lexem> lexems) {
-        return ArithmExpression(lexems) || BoolExpression(lexems) || String(lexems);
-    }
-
     public boolean BoolExpression(List<Lexem> lexems) {
-        if (Boolean(lexems) || Identifier(lexems)) {
-            return true;
-        }
-
-        if (lexems.size() < 3) {
-            return false;
-        }
-
-        final int indexOfRelOp = findLastIndexBeforeFromEnd(lexems, this::ArithmExpression);
-
-        if (indexOfRelOp == -1) {
-            return false;
-        }
-
-        if (lexems.get(indexOfRelOp).getToken() != REL_OP) {
-            return false;
-        }
-
-        return ArithmExpression(lexems.subList(0, indexOfRelOp));
+        final ExpressionParser parser = new ExpressionParser(lexems);
+        return parser.parseBoolExpression() && parser.isFinished();
     }
 
     public boolean ArithmExpression(List<Lexem> lexems) {
-        final boolean sign = lexems.size() > 1 && lexems.get(0).getToken() == ADD_OP;
-
-        final boolean term = sign
-                ? Term(lexems.subList(1, lexems.size()))
-                : Term(lexems.subList(0, lexems.size()));
+        final ExpressionParser parser = new ExpressionParser(lexems);
 
-        if (term) {
+        if (parser.parseArithmExpression() && parser.isFinished()) {
             return true;
         }
 
-        if (lexems.size() < 3) {
-            return false;
-        }
-
-        final int indexOfAddOp = findLastIndexBeforeFromEnd(lexems, this::Term);
-
-        if (indexOfAddOp == -1) {
-            return false;
-        }
-
-        final boolean addOp = lexems.get(indexOfAddOp).getToken() == ADD_OP;
-
-        if (!addOp) {
+        if (lexems.size() >= 3) {
             pushError("arithmetical expression", "", lexems);
-            return false;
         }
-
-        return ArithmExpression(lexems.subList(0, indexOfAddOp));
+        return false;
     }
 
-    public boolean Term(List<Lexem> lexems) {
-        if (Factor(lexems)) {
-            return true;
-        }
-
-        if (lexems.size() < 3) {
-            return false;
-        }
-
-        int indexOfMultOp = findLastIndexBeforeFromEnd(lexems, this::Factor);
-
-        if (indexOfMultOp == -1) {
+    public boolean Assign(List<Lexem> lexems) {
+        if (lexems.size() < 3 || lexems.get(0).getToken() != IDENTIFIER || lexems.get(1).getToken() != ASSIGN) {
             return false;
         }
 
-        final boolean multOp = lexems.get(indexOfMultOp).getToken() == MULT_OP
-                || lexems.get(indexOfMultOp).getToken() == POW_OP;
-
-        if (!multOp) {
+        final ExpressionParser expression = new ExpressionParser(lexems, 2, lexems.size());
+        if (!expression.parseExpression()) {
             return false;
         }
 
-        return Term(lexems.subList(0, indexOfMultOp));
-    }
-
-    public boolean Factor(List<Lexem> lexems) {
-        final boolean brackets = lexems.size() >= 3
-                && lexems.get(0).getToken() == BRACKET_OP
-                && lexems.get(lexems.size() - 1).getToken() == BRACKET_OP;
-
-        if (brackets && ArithmExpression(lexems.subList(1, lexems.size() - 1))) {
-            return true;
-        }
-
-        return Identifier(lexems) || UnsignedNumber(lexems);
-    }
-
-    public boolean SignedNumber(List<Lexem> lexems) {
-        return SignedInteger(lexems) || SignedReal(lexems);
-    }
-
-    public boolean SignedReal(List<Lexem> lexems) {
-        final boolean sign = lexems.size() > 1 && lexems.get(0).getToken() == ADD_OP;
-
-        return sign
-                ? UnsignedReal(lexems.subList(1, lexems.size()))
-                : UnsignedReal(lexems.subList(0, lexems.size()));
-    }
-
-    public boolean SignedInteger(List<Lexem> lexems) {
-        final boolean sign = lexems.size() > 1 && lexems.get(0).getToken() == ADD_OP;
-
-        return sign
-                ? UnsignedInteger(lexems.subList(1, lexems.size()))
-                : UnsignedInteger(lexems.subList(0, lexems.size()));
-    }
-
-    public boolean UnsignedNumber(List<Lexem> lexems) {
-        return UnsignedInteger(lexems) || UnsignedReal(lexems);
-    }
-
-    public boolean UnsignedReal(List<Lexem> lexems) {
-        return lexems.size() == 1
-                && lexems.get(0).getToken() == CONSTANT
-                && lexems.get(0).getName().matches("\\d+(((\\.\\d+)?e[+-]\\d+)|(\\.\\d+))");
-    }
-
-    public boolean UnsignedInteger(List<Lexem> lexems) {
-        return lexems.size() == 1
-                && lexems.get(0).getToken() == CONSTANT
-                && lexems.get(0).getName().matches("\\d+");
-    }
-
-    public boolean Boolean(List<Lexem> lexems) {
-        return lexems.size() == 1
-                && lexems.get(0).getToken() == CONSTANT
-                && lexems.get(0).getName().matches("true|false");
-    }
-
-    public boolean String(List<Lexem> lexems) {
-        return lexems.size() == 1
-                && lexems.get(0).getToken() == CONSTANT
-                && lexems.get(0).getName().matches("'[^']*'");
-    }
-
-    public boolean Assign(List<Lexem> lexems) {
-        final boolean assign = lexems.size() >= 3
-                && lexems.get(0).getToken() == IDENTIFIER
-                && lexems.get(1).getToken() == ASSIGN
-                && Expression(lexems.subList(2, lexems.size()));
-
-        if (assign) {
-            rpn.addAll(DijkstrasParser.convertInfixToRpn(lexems));
-        }
-
-        return assign;
+        rpn.add(lexems.get(0));
+        rpn.addAll(expression.getRpn());
+        rpn.add(lexems.get(1));
+        return true;
     }
 
     public boolean ConstantDefinition(List<Lexem> lexems) {
@@ -363,68 +383,93 @@ public class Grammar {
                 && lexems.get(2).getToken() == CONSTANT;
 
         if (cd) {
-            rpn.addAll(DijkstrasParser.convertInfixToRpn(lexems));
+            rpn.add(lexems.get(0));
+            rpn.add(lexems.get(2));
+            rpn.add(lexems.get(1));
         }
 
         return cd;
     }
 
     public boolean Loop(List<Lexem> lexems) {
-        if (lexems.get(0).getToken() != LOOP) {
+        if (!isKeyword(lexems.get(0), LOOP, "for") && !isKeyword(lexems.get(0), LOOP, "while")) {
             return false;
         }
 
-        final int currentRpnSize = rpn.size();
+        return parse(lexems, this::parseLoop);
+    }
 
-        final int lastIndexOfLoopStatement = findLastIndexBeforeFromEnd(lexems, this::LoopStatements);
+    private boolean parseLoop() {
+        final int from = position;
+        final int doIndex = findHeaderEnd(from, LOOP, "do");
 
-        if (lastIndexOfLoopStatement == -1) {
-            rpn = new LinkedList<>(rpn.subList(0, currentRpnSize));
+        if (doIndex == -1) {
+            pushError("loop statements", "expected keyword 'do'", restOfRow(from));
             return false;
         }
 
-        final List<Lexem> loopStatement = lexems.subList(0, lastIndexOfLoopStatement + 1);
+        final List<Lexem> header = source.subList(from, doIndex);
+        final int checkpoint = rpn.checkpoint();
 
-        final int beforeForRpnSize = rpn.size();
+        if (!WhileLoop(header) && !ForLoop(header)) {
+            rpn.rollback(checkpoint);
+            pushError("loop", "", header);
+            return false;
+        }
 
-        if (WhileLoop(loopStatement) || ForLoop(loopStatement)) {
+        final int startMarkSlot = rpn.reserve();
+        rpn.add(new Lexem(-1, ":", Token.PUNCT));
 
-            final LinkedList<Lexem> tempRpn = new LinkedList<>();
-            final List<String> lexemNames = lexems.stream().map(Lexem::getName).collect(Collectors.toList());
-            final int doIndex = lexemNames.indexOf("do");
-            final Lexem mark1 = new Lexem(-1, "$" + identifiers.size(), Token.IDENTIFIER, identifiers.size());
-            final Lexem mark2 = new Lexem(-1, "$" + (identifiers.size() + 1), Token.IDENTIFIER, (identifiers.size() + 1));
-            identifiers.add(new Pair(mark1.getName(), Pair.Type.MARK, Pair.UNDEF, false, mark1.getIndex()));
-            identifiers.add(new Pair(mark2.getName(), Pair.Type.MARK, Pair.UNDEF, false, mark2.getIndex()));
+        if (header.get(0).getName().equals("for")) {
+            final int toIndex = indexOfKeyword(header, "to");
+            final ExpressionParser limit = new ExpressionParser(header, toIndex + 1, header.size());
+            limit.parseArithmExpression();
+            rpn.add(header.get(1).getToken() == Token.IDENTIFIER ? header.get(1) : header.get(2));
+            rpn.addAll(limit.getRpn());
+            rpn.add(new Lexem(-1, "<", Token.REL_OP));
+        } else {
+            final ExpressionParser condition = new ExpressionParser(header, 1, header.size());
+            condition.parseBoolExpression();
+            rpn.addAll(condition.getRpn());
+        }
 
-            if (lexems.get(0).getName().equals("for")) {
-                rpn = new LinkedList<>(rpn.subList(0, beforeForRpnSize));
-                final int toIndex = lexemNames.indexOf("to");
-                tempRpn.addAll(DijkstrasParser.convertInfixToRpn(lexems.subList(1, toIndex)));
-                tempRpn.add(mark1);
-                tempRpn.add(new Lexem(-1, ":", Token.PUNCT));
-                tempRpn.add(lexems.get(1).getToken() == Token.IDENTIFIER ? lexems.get(1) : lexems.get(2));
-                tempRpn.addAll(DijkstrasParser.convertInfixToRpn(lexems.subList(toIndex + 1, doIndex)));
-                tempRpn.add(new Lexem(-1, "<", Token.REL_OP));
-            } else {
-                tempRpn.add(mark1);
-                tempRpn.add(new Lexem(-1, ":", Token.PUNCT));
-                tempRpn.addAll(DijkstrasParser.convertInfixToRpn(lexems.subList(1, doIndex)));
-            }
-            tempRpn.add(mark2);
-            tempRpn.add(new Lexem(-1, "if", Token.CONDITION));
-            rpn.addAll(currentRpnSize, tempRpn);
-            rpn.add(mark1);
-            rpn.add(new Lexem(-1, "goto", Token.JUMP));
-            rpn.add(mark2);
-            rpn.add(new Lexem(-1, ":", Token.PUNCT));
+        final int endMarkSlot = rpn.reserve();
+        rpn.add(new Lexem(-1, "if", Token.CONDITION));
 
-            return true;
-        } else {
-            rpn = new LinkedList<>(rpn.subList(0, currentRpnSize));
-            pushError("loop", "", lexems);
+        position = doIndex + 1;
+
+        if (!parseStatementList(true)) {
+            rpn.rollback(checkpoint);
             return false;
         }
+
+        if (position == source.size()) {
+            pushError("loop statements", "expected keyword 'end'", header);
+            rpn.rollback(checkpoint);
+            return false;
+        }
+
+        position++;
+
+        final Lexem startMark = createMark();
+        final Lexem endMark = createMark();
+
+        rpn.patch(startMarkSlot, startMark);
+        rpn.patch(endMarkSlot, endMark);
+        rpn.add(startMark);
+        rpn.add(new Lexem(-1, "goto", Token.JUMP));
+        rpn.add(endMark);
+        rpn.add(new Lexem(-1, ":", Token.PUNCT));
+
+        return true;
+    }
+
+    private Lexem createMark() {
+        final int index = identifiers.nextIndex();
+        final Lexem mark = new Lexem(-1, "$" + index, Token.IDENTIFIER, index);
+        identifiers.put(new Pair(mark.getName(), Pair.Type.MARK, Pair.UNDEF, false, index));
+        marks.add(mark);
+        return mark;
     }
 
     public boolean ForLoop(List<Lexem> lexems) {
@@ -436,13 +481,9 @@ public class Grammar {
             return false;
         }
 
-        final int indexOfTo = findLastIndexBeforeFromEnd(lexems, this::ArithmExpression);
+        final int indexOfTo = indexOfKeyword(lexems, "to");
 
-        if (indexOfTo == -1) {
-            return false;
-        }
-
-        if (!lexems.get(indexOfTo).getName().equals("to")) {
+        if (indexOfTo == -1 || !ArithmExpression(lexems.subList(indexOfTo + 1, lexems.size()))) {
             return false;
         }
 
@@ -464,18 +505,24 @@ public class Grammar {
         }
     }
 
-    public boolean LoopStatements(List<Lexem> lexems) {
-        if (!lexems.get(0).getName().equals("do")) {
-            pushError("loop statements", "expected keyword 'do'", lexems);
+    private boolean parseCondition() {
+        final int from = position;
+        final int thenIndex = findHeaderEnd(from, CONDITION, "then");
+
+        if (thenIndex == -1) {
+            pushError("condition", "expected 'then'", restOfRow(from));
             return false;
         }
 
-        if (!lexems.get(lexems.size() - 1).getName().equals("end")) {
-            pushError("loop statements", "expected keyword 'end'", lexems);
-            return false;
+        final int checkpoint = rpn.checkpoint();
+        position = Math.min(thenIndex + 3, source.size());
+
+        if (Condition(source.subList(from, position))) {
+            return true;
         }
 
-        return StatementList(lexems.subList(1, lexems.size() - 1));
+        rpn.rollback(checkpoint);
+        return false;
     }
 
     public boolean Condition(List<Lexem> lexems) {
@@ -494,13 +541,13 @@ public class Grammar {
 
         final List<Lexem> boolExpression = lexems.subList(1, lexems.size() - 3);
 
-        final boolean condition = BoolExpression(boolExpression);
+        final ExpressionParser parser = new ExpressionParser(boolExpression);
+        final boolean condition = parser.parseBoolExpression() && parser.isFinished();
 
         if (condition) {
-            rpn.addAll(DijkstrasParser.convertInfixToRpn(boolExpression));
+            rpn.addAll(parser.getRpn());
 
-            final Lexem mark = new Lexem(-1, "$" + identifiers.size(), Token.IDENTIFIER, identifiers.size());
-            identifiers.add(new Pair(mark.getName(), Pair.Type.MARK, Pair.UNDEF, false, mark.getIndex()));
+            final Lexem mark = createMark();
 
             rpn.add(mark);
             rpn.add(lexems.get(0));
@@ -523,8 +570,8 @@ public class Grammar {
         }
 
         if (Mark(lexems.subList(1, lexems.size()))) {
-            Collections.reverse(lexems);
-            rpn.addAll(lexems);
+            rpn.add(lexems.get(1));
+            rpn.add(lexems.get(0));
             return true;
         } else {
             pushError("goto", "wrong mark", lexems);
@@ -544,8 +591,8 @@ public class Grammar {
                 )
 
         ) {
-            Collections.reverse(lexems);
-            rpn.addAll(lexems);
+            rpn.add(lexems.get(1));
+            rpn.add(lexems.get(0));
             return true;
         } else {
             pushError("IO", "wrong identifier", lexems);
@@ -0,0 +1,61 @@
+package com.vladhuk.l1compiler.syntax;
+
+import com.vladhuk.l1compiler.lexical.Lexem;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+
+public class RpnBuffer extends AbstractList<Lexem> implements RandomAccess {
+
+    private Lexem[] symbols = new Lexem[64];
+    private int size;
+
+    public int checkpoint() {
+        return size;
+    }
+
+    public void rollback(int checkpoint) {
+        if (checkpoint > size) {
+            throw new IllegalArgumentException("Checkpoint " + checkpoint + " is ahead of buffer size " + size);
+        }
+        Arrays.fill(symbols, checkpoint, size, null);
+        size = checkpoint;
+    }
+
+    public int reserve() {
+        add(null);
+        return size - 1;
+    }
+
+    public void patch(int index, Lexem symbol) {
+        if (index >= size || symbols[index] != null) {
+            throw new IllegalStateException("Slot " + index + " is not reserved");
+        }
+        symbols[index] = symbol;
+    }
+
+    @Override
+    public boolean add(Lexem symbol) {
+        if (size == symbols.length) {
+            symbols = Arrays.copyOf(symbols, size * 2);
+        }
+        symbols[size++] = symbol;
+        return true;
+    }
+
+    @Override
+    public Lexem get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return symbols[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
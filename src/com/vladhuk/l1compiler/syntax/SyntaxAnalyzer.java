@@ -1,12 +1,11 @@
 package com.vladhuk.l1compiler.syntax;
 
-import com.vladhuk.l1compiler.lexical.Lexem;
-import com.vladhuk.l1compiler.lexical.Pair;
-import com.vladhuk.l1compiler.util.Util;
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.tables.TableFormat;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.PrintStream;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -14,31 +13,38 @@ import java.util.List;
 public class SyntaxAnalyzer {
 
     public static String analyze(List<String> rows) {
-        final List<List<String>> tables = Util.getSeparatedTables(rows);
+        final CompilationUnit unit = CompilationUnit.fromTables(rows);
+        analyze(unit);
+        return unit.rpnTablesToString();
+    }
 
-        final List<Lexem> lexems = Util.getLexemsFromLexemTable(tables.get(0));
-        final List<Pair> constants = Util.getPairsFromTable(tables.get(1));
-        final List<Pair> identifiers = Util.getPairsFromTable(tables.get(2));
+    public static boolean analyze(CompilationUnit unit) {
+        return analyze(unit, System.err);
+    }
 
+    public static boolean analyze(CompilationUnit unit, PrintStream err) {
         final Grammar grammar = new Grammar();
-        grammar.setIdentifiers(identifiers);
+        grammar.setIdentifiers(unit.getIdentifiers());
 
-        final boolean isSyntaxCorrect = grammar.Program(lexems);
+        final boolean isSyntaxCorrect = grammar.Program(unit.getLexems());
         if (!isSyntaxCorrect) {
-            System.err.println("Syntax is wrong!");
-            grammar.showError();
+            err.println("Syntax is wrong!");
+            grammar.showError(err);
         }
 
-        return Util.tableToString(grammar.getRpn()) +
-                "\n-----\n" +
-                Util.tableToString(constants) +
-                "\n-----\n" +
-                Util.tableToString(identifiers) +
-                "\n-----";
+        unit.setRpn(grammar.getRpn());
+
+        return isSyntaxCorrect;
     }
 
     public static void analyze(Path tables, Path destination) throws IOException {
-        Files.writeString(destination, analyze(Files.readAllLines(tables)));
+        analyze(tables, destination, TableFormat.TEXT);
+    }
+
+    public static void analyze(Path tables, Path destination, TableFormat format) throws IOException {
+        final CompilationUnit unit = CompilationUnit.read(tables);
+        analyze(unit);
+        unit.writeRpnTables(destination, format);
     }
 
     public static void analyze(File tables, File destination) throws IOException {
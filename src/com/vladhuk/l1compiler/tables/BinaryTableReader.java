@@ -0,0 +1,182 @@
+package com.vladhuk.l1compiler.tables;
+
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.StreamingLexer;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+import com.vladhuk.l1compiler.lexical.Token;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.vladhuk.l1compiler.tables.BinaryTableWriter.*;
+
+
+public class BinaryTableReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Token[] TOKENS = Token.values();
+    private static final Pair.Type[] TYPES = Pair.Type.values();
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final List<String> names = new ArrayList<>();
+    private int previousRowNumber;
+
+    public BinaryTableReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.flip();
+
+        final byte[] magic = new byte[MAGIC.length];
+        require(magic.length + 1);
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a binary L1 table file.");
+        }
+
+        final int version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported table format version " + version + '.');
+        }
+    }
+
+    public static CompilationUnit read(Path source) throws IOException {
+        try (BinaryTableReader reader = new BinaryTableReader(FileChannel.open(source, StandardOpenOption.READ))) {
+            return reader.read();
+        }
+    }
+
+    public static boolean isBinary(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            final ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining() && channel.read(magic) != -1) {
+            }
+            return !magic.hasRemaining() && Arrays.equals(magic.array(), MAGIC);
+        }
+    }
+
+    public CompilationUnit read() throws IOException {
+        final List<Lexem> lexems = new ArrayList<>();
+        readLexems(lexems::add);
+        final SymbolTable constants = readPairs();
+        final SymbolTable identifiers = readPairs();
+
+        return new CompilationUnit(lexems, constants, identifiers);
+    }
+
+    public void readLexems(StreamingLexer.LexemHandler handler) throws IOException {
+        previousRowNumber = 0;
+
+        int tag;
+        while ((tag = readTag()) != END_OF_TABLE) {
+            if (tag >= TOKENS.length) {
+                throw new IOException("Unknown token ordinal " + tag + '.');
+            }
+
+            final int rowNumber = previousRowNumber + unzigzag(readVarint());
+            previousRowNumber = rowNumber;
+
+            final String name = readName();
+            final int index = readVarint() - 1;
+
+            handler.accept(new Lexem(rowNumber, name, TOKENS[tag], index));
+        }
+    }
+
+    public SymbolTable readPairs() throws IOException {
+        final SymbolTable pairs = new SymbolTable();
+
+        int tag;
+        while ((tag = readTag()) != END_OF_TABLE) {
+            final int type = tag & ~MODIFIABLE_FLAG;
+            if (type >= TYPES.length) {
+                throw new IOException("Unknown symbol type ordinal " + type + '.');
+            }
+
+            final String name = readName();
+            final String value = readName();
+            final int index = readVarint();
+
+            pairs.add(new Pair(name, TYPES[type], value, (tag & MODIFIABLE_FLAG) != 0, index));
+        }
+
+        return pairs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int readTag() throws IOException {
+        require(1);
+        return buffer.get() & 0xFF;
+    }
+
+    private String readName() throws IOException {
+        final int id = readVarint();
+
+        if (id < names.size()) {
+            return names.get(id);
+        }
+        if (id != names.size()) {
+            throw new IOException("Name id " + id + " is out of order.");
+        }
+
+        final byte[] bytes = new byte[readVarint()];
+        int offset = 0;
+        while (offset < bytes.length) {
+            require(1);
+            final int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.get(bytes, offset, length);
+            offset += length;
+        }
+
+        final String name = new String(bytes, StandardCharsets.UTF_8);
+        names.add(name);
+        return name;
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            require(1);
+            final byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint.");
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) == -1) {
+                throw new EOFException("Unexpected end of table file.");
+            }
+        }
+        buffer.flip();
+    }
+
+}
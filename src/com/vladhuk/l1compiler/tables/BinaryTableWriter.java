@@ -0,0 +1,132 @@
+package com.vladhuk.l1compiler.tables;
+
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Pair;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+
+public class BinaryTableWriter implements TableWriter {
+
+    public static final byte[] MAGIC = {'L', '1', 'T', 'B'};
+    public static final int VERSION = 1;
+    public static final int END_OF_TABLE = 0xFF;
+    public static final int MODIFIABLE_FLAG = 0x80;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_VARINT_SIZE = 5;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final Map<String, Integer> names = new HashMap<>();
+    private int previousRowNumber;
+
+    public BinaryTableWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        buffer.put(MAGIC);
+        buffer.put((byte) VERSION);
+    }
+
+    @Override
+    public void write(Lexem lexem) throws IOException {
+        ensureCapacity(1 + MAX_VARINT_SIZE);
+        buffer.put((byte) lexem.getToken().ordinal());
+        putVarint(zigzag(lexem.getRowNumber() - previousRowNumber));
+        previousRowNumber = lexem.getRowNumber();
+
+        putName(lexem.getName());
+
+        ensureCapacity(MAX_VARINT_SIZE);
+        putVarint(lexem.getIndex() + 1);
+    }
+
+    @Override
+    public void write(Pair pair) throws IOException {
+        ensureCapacity(1);
+        buffer.put((byte) (pair.getType().ordinal() | (pair.isModifiable() ? MODIFIABLE_FLAG : 0)));
+
+        putName(pair.getName());
+        putName(pair.getValue());
+
+        ensureCapacity(MAX_VARINT_SIZE);
+        putVarint(pair.getIndex());
+    }
+
+    @Override
+    public void nextTable() throws IOException {
+        ensureCapacity(1);
+        buffer.put((byte) END_OF_TABLE);
+        previousRowNumber = 0;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        nextTable();
+        flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void putName(String name) throws IOException {
+        final Integer id = names.get(name);
+
+        ensureCapacity(MAX_VARINT_SIZE);
+        if (id != null) {
+            putVarint(id);
+            return;
+        }
+
+        putVarint(names.size());
+        names.put(name, names.size());
+
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(MAX_VARINT_SIZE);
+        putVarint(bytes.length);
+
+        if (bytes.length <= buffer.capacity()) {
+            ensureCapacity(bytes.length);
+            buffer.put(bytes);
+        } else {
+            flush();
+            final ByteBuffer large = ByteBuffer.wrap(bytes);
+            while (large.hasRemaining()) {
+                channel.write(large);
+            }
+        }
+    }
+
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
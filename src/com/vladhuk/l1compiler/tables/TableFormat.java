@@ -0,0 +1,5 @@
+package com.vladhuk.l1compiler.tables;
+
+public enum TableFormat {
+    TEXT, BINARY
+}
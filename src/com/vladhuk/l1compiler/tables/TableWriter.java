@@ -0,0 +1,39 @@
+package com.vladhuk.l1compiler.tables;
+
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Pair;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+
+public interface TableWriter extends Closeable {
+
+    void write(Lexem lexem) throws IOException;
+
+    void write(Pair pair) throws IOException;
+
+    void nextTable() throws IOException;
+
+    void finish() throws IOException;
+
+    default void writeAll(List<? extends Pair> pairs) throws IOException {
+        for (Pair pair : pairs) {
+            write(pair);
+        }
+    }
+
+    static TableWriter open(Path destination, TableFormat format) throws IOException {
+        if (format == TableFormat.BINARY) {
+            return new BinaryTableWriter(FileChannel.open(destination,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+        }
+        return new TextTableWriter(Files.newBufferedWriter(destination));
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.vladhuk.l1compiler.tables;
+
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.Pair;
+
+import java.io.IOException;
+import java.io.Writer;
+
+
+public class TextTableWriter implements TableWriter {
+
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private final Writer writer;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 256);
+    private boolean firstRow = true;
+
+    public TextTableWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(Lexem lexem) throws IOException {
+        startRow();
+        lexem.appendTo(buffer);
+        flushIfFull();
+    }
+
+    @Override
+    public void write(Pair pair) throws IOException {
+        startRow();
+        pair.appendTo(buffer);
+        flushIfFull();
+    }
+
+    @Override
+    public void nextTable() {
+        buffer.append("\n-----\n");
+        firstRow = true;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        buffer.append("\n-----");
+        writer.append(buffer);
+        writer.flush();
+        buffer.setLength(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void startRow() {
+        if (!firstRow) {
+            buffer.append('\n');
+        }
+        firstRow = false;
+    }
+
+    private void flushIfFull() throws IOException {
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            writer.append(buffer);
+            buffer.setLength(0);
+        }
+    }
+
+}
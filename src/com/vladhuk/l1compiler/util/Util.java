@@ -5,6 +5,7 @@ import com.vladhuk.l1compiler.lexical.Pair;
 import com.vladhuk.l1compiler.lexical.Token;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -87,6 +88,29 @@ public class Util {
         return splitTables;
     }
 
+    public static String tablesToString(Collection<?>... tables) {
+        return Arrays.stream(tables)
+                .map(Util::tableToString)
+                .collect(Collectors.joining("\n-----\n", "", "\n-----"));
+    }
+
+    public static StringBuilder appendPadded(StringBuilder builder, String value, int width) {
+        final int start = builder.length();
+        return pad(builder.append(value), start, width);
+    }
+
+    public static StringBuilder appendPadded(StringBuilder builder, int value, int width) {
+        final int start = builder.length();
+        return pad(builder.append(value), start, width);
+    }
+
+    private static StringBuilder pad(StringBuilder builder, int start, int width) {
+        for (int i = builder.length() - start; i < width; i++) {
+            builder.append(' ');
+        }
+        return builder;
+    }
+
     public static String tableToString(Collection<?> table) {
         return table.stream()
                 .map(Object::toString)
@@ -0,0 +1,129 @@
+package com.vladhuk.l1compiler.benchmark;
+
+import com.vladhuk.l1compiler.automat.Automatic;
+import com.vladhuk.l1compiler.incremental.IncrementalCompiler;
+import com.vladhuk.l1compiler.interpretation.Interpreter;
+import com.vladhuk.l1compiler.jit.CompiledProgram;
+import com.vladhuk.l1compiler.jit.JitCompiler;
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.LexicalAnalyzer;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+import com.vladhuk.l1compiler.lexical.TokenStream;
+import com.vladhuk.l1compiler.rpn.DijkstrasParser;
+import com.vladhuk.l1compiler.syntax.Grammar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CompilerBenchmarks {
+
+    @Benchmark
+    public String lexer(GeneratedProgram program) {
+        return LexicalAnalyzer.parse(program.getSource());
+    }
+
+    @Benchmark
+    public TokenStream tokens(GeneratedProgram program) {
+        return LexicalAnalyzer.tokenize(program.getSource(), new SymbolTable(), new SymbolTable());
+    }
+
+    @Benchmark
+    public List<Lexem> parser(ParsedProgram program) {
+        final Grammar grammar = new Grammar();
+        grammar.setIdentifiers(ParsedProgram.copyOf(program.getUnit().getIdentifiers()));
+        grammar.Program(program.getUnit().getLexems());
+        return grammar.getRpn();
+    }
+
+    @Benchmark
+    public TokenStream rpn(ParsedProgram program, Conversion conversion) {
+        conversion.converted.clear();
+        for (TokenStream.Slice expression : program.getExpressions()) {
+            conversion.parser.convert(expression, conversion.converted);
+        }
+        return conversion.converted;
+    }
+
+    @Benchmark
+    public boolean automatic(ParsedProgram program) {
+        return Automatic.build(program.getUnit().getLexems()).run();
+    }
+
+    @Benchmark
+    public List<Pair> interpreter(ParsedProgram program) {
+        return new Interpreter(program.getUnit().getConstants(), ParsedProgram.copyOf(program.getParsedIdentifiers()))
+                .calculate(program.getRpn());
+    }
+
+    @Benchmark
+    public List<Pair> optimized(ParsedProgram program) {
+        return new Interpreter(program.getOptimized().getConstants(), ParsedProgram.copyOf(program.getOptimized().getIdentifiers()))
+                .calculate(program.getOptimized().getRpn());
+    }
+
+    @Benchmark
+    public List<Pair> jit(ParsedProgram program, Compiled compiled) {
+        return JitCompiler.execute(compiled.program, ParsedProgram.copyOf(program.getParsedIdentifiers()), System.in, System.out);
+    }
+
+    @Benchmark
+    public boolean incremental(Incremental incremental) {
+        incremental.compiler.edit(incremental.offset, 0, "\nx = 1");
+        incremental.compiler.edit(incremental.offset, 6, "");
+        return incremental.compiler.isSyntaxCorrect();
+    }
+
+    @State(Scope.Thread)
+    public static class Conversion {
+
+        private final DijkstrasParser parser = new DijkstrasParser();
+        private final TokenStream converted = new TokenStream();
+
+    }
+
+    @State(Scope.Benchmark)
+    public static class Compiled {
+
+        private CompiledProgram program;
+
+        @Setup(Level.Trial)
+        public void compile(ParsedProgram parsed) {
+            program = JitCompiler.compile(parsed.getRpn(), parsed.getUnit().getConstants(), parsed.getParsedIdentifiers());
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Incremental {
+
+        private IncrementalCompiler compiler;
+        private int offset;
+
+        @Setup(Level.Trial)
+        public void open(GeneratedProgram program) {
+            final String source = program.getSource();
+            compiler = new IncrementalCompiler(source);
+            offset = Math.max(source.indexOf('\n', source.length() / 2), 0);
+        }
+
+    }
+
+}
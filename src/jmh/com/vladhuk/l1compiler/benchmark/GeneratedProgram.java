@@ -0,0 +1,46 @@
+package com.vladhuk.l1compiler.benchmark;
+
+import com.vladhuk.l1compiler.generator.L1Generator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+@State(Scope.Benchmark)
+public class GeneratedProgram {
+
+    @Param({"16KB", "256KB"})
+    public String size;
+
+    @Param({"3"})
+    public int depth;
+
+    @Param({"3"})
+    public int nesting;
+
+    @Param({"32"})
+    public int identifiers;
+
+    private String source;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        final Map<String, String> options = new HashMap<>();
+        options.put("size", size);
+        options.put("depth", String.valueOf(depth));
+        options.put("nesting", String.valueOf(nesting));
+        options.put("identifiers", String.valueOf(identifiers));
+
+        source = L1Generator.fromOptions(options).generate();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.vladhuk.l1compiler.benchmark;
+
+import com.vladhuk.l1compiler.CompilationUnit;
+import com.vladhuk.l1compiler.automat.Automatic;
+import com.vladhuk.l1compiler.lexical.Lexem;
+import com.vladhuk.l1compiler.lexical.LexicalAnalyzer;
+import com.vladhuk.l1compiler.lexical.Pair;
+import com.vladhuk.l1compiler.lexical.SymbolTable;
+import com.vladhuk.l1compiler.lexical.Token;
+import com.vladhuk.l1compiler.lexical.TokenStream;
+import com.vladhuk.l1compiler.optimization.RpnOptimizer;
+import com.vladhuk.l1compiler.syntax.Grammar;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+
+@State(Scope.Benchmark)
+public class ParsedProgram {
+
+    private CompilationUnit unit;
+    private SymbolTable parsedIdentifiers;
+    private List<Lexem> rpn;
+    private CompilationUnit optimized;
+    private List<TokenStream.Slice> expressions;
+
+    @Setup(Level.Trial)
+    public void parse(GeneratedProgram program) {
+        unit = LexicalAnalyzer.analyze(program.getSource());
+
+        parsedIdentifiers = copyOf(unit.getIdentifiers());
+        final Grammar grammar = new Grammar();
+        grammar.setIdentifiers(parsedIdentifiers);
+        if (!grammar.Program(unit.getLexems())) {
+            grammar.showError();
+            throw new IllegalStateException("Synthetic program is not valid");
+        }
+        rpn = grammar.getRpn();
+
+        if (!Automatic.build(unit.getLexems()).run()) {
+            throw new IllegalStateException("Synthetic program is rejected by automatic");
+        }
+
+        optimized = new CompilationUnit(unit.getLexems(),
+                copyOf(unit.getConstants()), copyOf(parsedIdentifiers));
+        optimized.setRpn(rpn);
+        RpnOptimizer.optimize(optimized);
+
+        final TokenStream infix = new TokenStream();
+        expressions = new ArrayList<>();
+        for (List<Lexem> expression : findAssignedExpressions(unit.getLexems())) {
+            final int from = infix.size();
+            expression.forEach(infix::add);
+            expressions.add(infix.slice(from, infix.size()));
+        }
+    }
+
+    public CompilationUnit getUnit() {
+        return unit;
+    }
+    public SymbolTable getParsedIdentifiers() {
+        return parsedIdentifiers;
+    }
+    public List<Lexem> getRpn() {
+        return rpn;
+    }
+    public CompilationUnit getOptimized() {
+        return optimized;
+    }
+    public List<TokenStream.Slice> getExpressions() {
+        return expressions;
+    }
+
+    public static SymbolTable copyOf(List<Pair> pairs) {
+        return pairs.stream().map(Pair::new).collect(Collectors.toCollection(SymbolTable::new));
+    }
+
+    private static List<List<Lexem>> findAssignedExpressions(List<Lexem> lexems) {
+        final List<List<Lexem>> expressions = new ArrayList<>();
+
+        int rowStart = 0;
+        for (int i = 1; i <= lexems.size(); i++) {
+            if (i == lexems.size() || lexems.get(i).getRowNumber() != lexems.get(rowStart).getRowNumber()) {
+                final List<Lexem> row = lexems.subList(rowStart, i);
+                final int assign = indexOfAssign(row);
+                if (assign != -1 && assign + 1 < row.size()) {
+                    expressions.add(new ArrayList<>(row.subList(assign + 1, row.size())));
+                }
+                rowStart = i;
+            }
+        }
+
+        return expressions;
+    }
+
+    private static int indexOfAssign(List<Lexem> row) {
+        for (int i = 0; i < row.size(); i++) {
+            if (row.get(i).getToken() == Token.ASSIGN) {
+                return i;
+            }
+            if (row.get(i).getToken() == Token.LOOP) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+}